@@ -0,0 +1,78 @@
+package org.ablonewolf.batchingOperators;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link DeduplicationStrategy} backed by a Bloom filter, whose size is fixed when it is created.
+ * <p>
+ * The number of bits and hash functions are derived from the expected number of distinct items and the desired
+ * false-positive rate. Each item is hashed once into two 64-bit values, which are combined to produce the
+ * positions of all its bits. Bits are set with compare-and-set on an {@link AtomicLongArray}, so no locking is
+ * needed. Once more distinct items than expected have been seen, the false-positive rate rises above the configured
+ * one.
+ */
+class BloomFilterDeduplication implements DeduplicationStrategy {
+
+	private final AtomicLongArray bits;
+	private final long bitCount;
+	private final int hashCount;
+
+	BloomFilterDeduplication(long expectedItems, double falsePositiveRate) {
+		if (expectedItems < 1) {
+			throw new IllegalArgumentException("expectedItems must be at least 1, but was " + expectedItems);
+		}
+		if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1, but was "
+													   + falsePositiveRate);
+		}
+		long optimalBits = (long) Math.ceil(-expectedItems * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+		this.bits = new AtomicLongArray(words);
+		this.bitCount = (long) words * 64;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedItems * Math.log(2)));
+	}
+
+	@Override
+	public boolean markIfNew(String item) {
+		long hash1 = hash(item, 0x9E3779B97F4A7C15L);
+		long hash2 = hash(item, 0xC2B2AE3D27D4EB4FL) | 1;
+		boolean isNew = false;
+
+		for (int i = 0; i < hashCount; i++) {
+			long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+			isNew |= setBit(bit);
+		}
+		return isNew;
+	}
+
+	@Override
+	public long estimatedMemoryBytes() {
+		return bitCount / 8;
+	}
+
+	private boolean setBit(long bit) {
+		int index = (int) (bit >>> 6);
+		long mask = 1L << bit;
+		while (true) {
+			long word = bits.get(index);
+			if ((word & mask) != 0) {
+				return false;
+			}
+			if (bits.compareAndSet(index, word, word | mask)) {
+				return true;
+			}
+		}
+	}
+
+	private static long hash(String item, long seed) {
+		long hash = seed;
+		for (int i = 0; i < item.length(); i++) {
+			hash = (hash ^ item.charAt(i)) * 0x100000001B3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		return hash ^ (hash >>> 33);
+	}
+}
@@ -1,25 +1,26 @@
 package org.ablonewolf.batchingOperators;
 
 import org.ablonewolf.common.BookOrderGenerator;
+import org.ablonewolf.common.BookRevenueAggregator;
 import org.ablonewolf.common.Util;
 import org.ablonewolf.model.BookRevenueReport;
-import reactor.core.publisher.Flux;
 
 import java.time.Duration;
-import java.util.List;
 import java.util.Set;
 
 /**
  * The BookReportGeneration class demonstrates the process of generating and handling book revenue reports
  * using reactive programming constructs. This program streams book orders, filters them based on specific genres,
- * processes them in time-based batches, and generates revenue reports for each batch.
+ * aggregates their revenue over time windows, and generates revenue reports for each window.
  * <p>
  * Main functionality:<br>
  * - Generates a finite stream of book orders using {@link BookOrderGenerator#getFiniteAmountOfBookOrders(Integer)}.<br>
  * - Filters book orders to include only specific genres such as Science fiction, Fantasy, and Suspense/Thriller.<br>
- * - Buffers book orders into batches over a fixed time duration using
- * {@link Flux#buffer(Duration)}.<br>
- * - Generates a book revenue report for each batch using {@link BookRevenueReport#generateReport(List)}.<br>
+ * - Adds the revenue of every book order to per-genre totals as it arrives, and emits a {@link BookRevenueReport}
+ * for every 5-second window using {@link BookRevenueAggregator#tumbling(Duration)}, instead of buffering the orders
+ * of each window into a list first.<br>
+ * - Emits a revenue report for the last 15 seconds every 5 seconds using
+ * {@link BookRevenueAggregator#sliding(Duration, Duration)}.<br>
  * - Subscribes to the processed stream using a custom subscriber created via {@link Util#subscriber(String)}.<br>
  * - Ensures the main thread continues to run to observe the stream by invoking {@link Util#sleepSeconds(Long)}.
  */
@@ -29,12 +30,18 @@ public class BookReportGeneration {
 
 		var allowedCategories = Set.of("Science fiction", "Fantasy", "Suspense/Thriller");
 
-		BookOrderGenerator.getFiniteAmountOfBookOrders(500)
+		var bookOrders = BookOrderGenerator.getFiniteAmountOfBookOrders(500)
 				.filter(bookOrder -> allowedCategories.contains(bookOrder.genre()))
-				.buffer(Duration.ofSeconds(5))
-				.map(BookRevenueReport::generateReport)
+				.share();
+
+		bookOrders
+				.transform(BookRevenueAggregator.tumbling(Duration.ofSeconds(5)))
 				.subscribe(Util.subscriber("Book Revenue Report Subscriber"));
 
+		bookOrders
+				.transform(BookRevenueAggregator.sliding(Duration.ofSeconds(15), Duration.ofSeconds(5)))
+				.subscribe(Util.subscriber("Sliding Book Revenue Report Subscriber"));
+
 		Util.sleepSeconds(32L);
 	}
 }
@@ -0,0 +1,43 @@
+package org.ablonewolf.batchingOperators;
+
+import java.time.Duration;
+
+/**
+ * Decides whether a line has already been written by a {@link FileWriter}, so that duplicates can be skipped.
+ * <p>
+ * Implementations are safe to use from multiple threads, since batches of a single file may be written from
+ * different {@code boundedElastic} workers. They trade accuracy for memory in different ways:<br>
+ * - {@link #exact()}: remembers every line, never lets a duplicate through, and grows with the number of distinct
+ * lines.<br>
+ * - {@link #recent(int, Duration)}: remembers only the most recently seen lines, evicting the least recently seen
+ * ones beyond a maximum count and any line not seen within a time-to-live.<br>
+ * - {@link #bloomFilter(long, double)}: remembers lines as bits in a fixed-size Bloom filter, so memory is decided
+ * up front; a new line is wrongly treated as a duplicate with roughly the configured false-positive rate.
+ */
+public interface DeduplicationStrategy {
+
+	/**
+	 * Records the item and reports whether it was seen for the first time.
+	 *
+	 * @param item the line about to be written
+	 * @return {@code true} if the item should be written, {@code false} if it is a duplicate
+	 */
+	boolean markIfNew(String item);
+
+	/**
+	 * @return an estimate of the heap used by this strategy to remember items, in bytes
+	 */
+	long estimatedMemoryBytes();
+
+	static DeduplicationStrategy exact() {
+		return new ExactDeduplication();
+	}
+
+	static DeduplicationStrategy recent(int maxItems, Duration timeToLive) {
+		return new RecentItemsDeduplication(maxItems, timeToLive);
+	}
+
+	static DeduplicationStrategy bloomFilter(long expectedItems, double falsePositiveRate) {
+		return new BloomFilterDeduplication(expectedItems, falsePositiveRate);
+	}
+}
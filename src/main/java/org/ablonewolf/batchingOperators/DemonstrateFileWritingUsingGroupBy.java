@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.function.Function;
 
 /**
@@ -31,7 +32,9 @@ import java.util.function.Function;
  * Note:<br>
  * - Requires the existence of the directory `src/main/resources/country/` for the file writing operation.<br>
  * - Logs output to provide insight into streaming and file writing progress.<br>
- * - Handles file operations using the custom {@link FileWriter#createAndWriteToFile(Flux content, Path path)} method.
+ * - Handles file operations using the custom
+ * {@link FileWriter#createAndWriteToFile(Flux content, Path path, FlushPolicy policy)} method, writing and flushing
+ * every 20 countries or every second, whichever comes first.
  */
 public class DemonstrateFileWritingUsingGroupBy {
 
@@ -47,7 +50,8 @@ public class DemonstrateFileWritingUsingGroupBy {
 											group.key()))
 				.flatMap(group -> {
 					Path path = Path.of(fileNameFormat.formatted(group.key()));
-					return FileWriter.createAndWriteToFile(group, path)
+					var flushPolicy = FlushPolicy.everyLinesOrInterval(20, Duration.ofSeconds(1));
+					return FileWriter.createAndWriteToFile(group, path, flushPolicy)
 							.doOnSuccess(success -> log.info("File written for continent: {}", group.key()));
 				})
 				.subscribe();
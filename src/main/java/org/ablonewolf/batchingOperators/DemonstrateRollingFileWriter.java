@@ -0,0 +1,38 @@
+package org.ablonewolf.batchingOperators;
+
+import org.ablonewolf.common.NameGenerator;
+import org.ablonewolf.common.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Demonstrates writing a continuous stream of country names into rolling files.
+ * <p>
+ * Instead of opening a new {@link FileWriter} for every {@code window(Duration)} as
+ * {@link DemonstrateFileWritingUsingWindow} does, the stream is handed to
+ * {@link RollingFileWriter#write(Flux, RollingPolicy)} once, which rotates to a new file after 40 country names or 4
+ * seconds, whichever comes first.
+ * <p>
+ * Note:<br>
+ * - Requires the existence of the directory `src/main/resources/country/` for the file writing operation.<br>
+ * - Logs the path of every file once it has been synced and closed.
+ */
+public class DemonstrateRollingFileWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(DemonstrateRollingFileWriter.class);
+
+	public static void main(String[] args) {
+
+		var rollingPolicy = RollingPolicy.of("src/main/resources/country/rolling_country_names_%d.txt")
+				.withMaxRecords(40)
+				.withMaxAge(Duration.ofSeconds(4));
+
+		RollingFileWriter.write(NameGenerator.getFiniteCountryNames(150), rollingPolicy)
+				.subscribe(path -> log.info("Completed file {}", path));
+
+		Util.sleepSeconds(35L);
+	}
+}
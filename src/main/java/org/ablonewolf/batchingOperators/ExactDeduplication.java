@@ -0,0 +1,33 @@
+package org.ablonewolf.batchingOperators;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link DeduplicationStrategy} that remembers every distinct item in a concurrent set.
+ */
+class ExactDeduplication implements DeduplicationStrategy {
+
+	/**
+	 * rough per-entry cost of a String and its ConcurrentHashMap node, excluding the characters themselves
+	 */
+	static final long ENTRY_OVERHEAD_BYTES = 96;
+
+	private final Set<String> items = ConcurrentHashMap.newKeySet();
+	private final AtomicLong memoryBytes = new AtomicLong();
+
+	@Override
+	public boolean markIfNew(String item) {
+		if (items.add(item)) {
+			memoryBytes.addAndGet(ENTRY_OVERHEAD_BYTES + item.length());
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public long estimatedMemoryBytes() {
+		return memoryBytes.get();
+	}
+}
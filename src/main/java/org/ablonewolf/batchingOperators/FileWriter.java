@@ -1,17 +1,23 @@
 package org.ablonewolf.batchingOperators;
 
+import org.ablonewolf.common.Compression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * A utility class for writing content to a file located at a specified file path in a reactive programming
@@ -21,6 +27,10 @@ import java.util.Set;
  * - Creates the file at the specified path before writing any content.<br>
  * - Writes a stream of text content to the file while ensuring that each entry is appended on a new line.<br>
  * - Flushes content to the file after each write operation ensuring consistency.<br>
+ * - Optionally writes content in batches, with one thread hop and one flush per batch as set by a
+ * {@link FlushPolicy}.<br>
+ * - Skips lines that were already written, remembering them as set by a {@link DeduplicationStrategy}.<br>
+ * - Optionally compresses batches with gzip or deflate, as set by a {@link Compression}.<br>
  * - Safely closes the file after all operations are complete.
  * <p>
  * Thread Safety:
@@ -33,27 +43,109 @@ import java.util.Set;
 public class FileWriter {
 
 	private static final Logger log = LoggerFactory.getLogger(FileWriter.class);
+	private static final int BUFFER_SIZE = 64 * 1024;
 	private final Path path;
-	private final Set<String> items = new HashSet<>();
+	private final DeduplicationStrategy deduplication;
 	private BufferedWriter writer;
+	private OutputStream output;
 
-	private FileWriter(Path path) {
+	private FileWriter(Path path, DeduplicationStrategy deduplication) {
 		this.path = path;
+		this.deduplication = deduplication;
 	}
 
 	public static Mono<Void> createAndWriteToFile(Flux<String> content, Path path) {
-		var writer = new FileWriter(path);
+		var writer = new FileWriter(path, DeduplicationStrategy.exact());
 		return content
-				.filter(item -> !writer.items.contains(item))
-				.concatMap(item -> Mono.fromRunnable(() -> {
-					writer.items.add(item);
-					writer.write(item);
-				}).subscribeOn(Schedulers.boundedElastic()))
+				.filter(writer.deduplication::markIfNew)
+				.concatMap(item -> Mono.fromRunnable(() -> writer.write(item))
+						.subscribeOn(Schedulers.boundedElastic()))
 				.doFirst(writer::createFile)
 				.doFinally(signalType -> writer.closeFile())
 				.then();
 	}
 
+	/**
+	 * Writes the content to the file in batches formed according to the given {@link FlushPolicy}, instead of one
+	 * line at a time. Each batch is deduplicated and written by a single task on {@link Schedulers#boundedElastic()},
+	 * followed by at most one flush, and batches are written strictly one after another.
+	 *
+	 * @param content the lines to write
+	 * @param path    the path of the file to create
+	 * @param policy  how lines are grouped into batches and when they are flushed
+	 * @return a Mono completing once every batch has been written and the file has been closed
+	 */
+	public static Mono<Void> createAndWriteToFile(Flux<String> content, Path path, FlushPolicy policy) {
+		return createAndWriteToFile(content, path, policy, DeduplicationStrategy.exact());
+	}
+
+	/**
+	 * Writes the content to the file in batches like {@link #createAndWriteToFile(Flux, Path, FlushPolicy)}, using
+	 * the given {@link DeduplicationStrategy} to skip lines that were already written. The memory used for
+	 * deduplication is logged once the file is closed.
+	 *
+	 * @param content       the lines to write
+	 * @param path          the path of the file to create
+	 * @param policy        how lines are grouped into batches and when they are flushed
+	 * @param deduplication how previously written lines are remembered
+	 * @return a Mono completing once every batch has been written and the file has been closed
+	 */
+	public static Mono<Void> createAndWriteToFile(Flux<String> content, Path path, FlushPolicy policy,
+												  DeduplicationStrategy deduplication) {
+		var writer = new FileWriter(path, deduplication);
+		return policy.batch(content)
+				.concatMap(batch -> Mono.fromRunnable(() -> writer.writeBatch(batch, policy.flushBatches()))
+						.subscribeOn(Schedulers.boundedElastic()))
+				.doFirst(writer::createFile)
+				.doFinally(signalType -> writer.closeFile())
+				.then();
+	}
+
+	/**
+	 * Writes the content to the file in batches like {@link #createAndWriteToFile(Flux, Path, FlushPolicy)}, but
+	 * compresses it on its way to disk. The stages are pipelined: batches are encoded as they are formed, compressed
+	 * on the dedicated scheduler of {@link Compression}, and the compressed chunks are written on
+	 * {@link Schedulers#boundedElastic()}, so compressing one batch overlaps with writing the previous one.
+	 * <p>
+	 * When the policy flushes batches, each batch is compressed with a sync flush, so that everything written so far
+	 * can be decompressed even before the file is closed.
+	 *
+	 * @param content     the lines to write
+	 * @param path        the path of the file to create
+	 * @param policy      how lines are grouped into batches and when they are flushed
+	 * @param compression the compression format and level
+	 * @return a Mono completing once every batch has been written and the file has been closed
+	 */
+	public static Mono<Void> createAndWriteToFile(Flux<String> content, Path path, FlushPolicy policy,
+												  Compression compression) {
+		return createAndWriteToFile(content, path, policy, compression, DeduplicationStrategy.exact());
+	}
+
+	/**
+	 * Writes the content to the file compressed like
+	 * {@link #createAndWriteToFile(Flux, Path, FlushPolicy, Compression)}, using the given
+	 * {@link DeduplicationStrategy} to skip lines that were already written.
+	 *
+	 * @param content       the lines to write
+	 * @param path          the path of the file to create
+	 * @param policy        how lines are grouped into batches and when they are flushed
+	 * @param compression   the compression format and level
+	 * @param deduplication how previously written lines are remembered
+	 * @return a Mono completing once every batch has been written and the file has been closed
+	 */
+	public static Mono<Void> createAndWriteToFile(Flux<String> content, Path path, FlushPolicy policy,
+												  Compression compression, DeduplicationStrategy deduplication) {
+		var writer = new FileWriter(path, deduplication);
+		return policy.batch(content)
+				.map(writer::encodeBatch)
+				.transform(batches -> compression.compress(batches, policy.flushBatches()))
+				.concatMap(chunk -> Mono.fromRunnable(() -> writer.writeChunk(chunk, policy.flushBatches()))
+						.subscribeOn(Schedulers.boundedElastic()))
+				.doFirst(writer::createOutputStream)
+				.doFinally(signalType -> writer.closeFile())
+				.then();
+	}
+
 	private void createFile() {
 		try {
 			this.writer = Files.newBufferedWriter(path);
@@ -62,14 +154,65 @@ public class FileWriter {
 		}
 	}
 
+	private void createOutputStream() {
+		try {
+			this.output = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+		} catch (IOException e) {
+			log.error("Failed to create file at path {} due to the following error: {}", path, e.getMessage());
+		}
+	}
+
 	private void closeFile() {
+		log.info("Deduplication for file {} used about {} bytes", path, deduplication.estimatedMemoryBytes());
 		try {
-			this.writer.close();
+			if (Objects.nonNull(this.writer)) {
+				this.writer.close();
+			}
+			if (Objects.nonNull(this.output)) {
+				this.output.close();
+			}
 		} catch (IOException e) {
 			log.error("Failed to close file due to the error: {}", e.getMessage());
 		}
 	}
 
+	private void writeBatch(List<String> batch, boolean flush) {
+		try {
+			for (String item : batch) {
+				if (this.deduplication.markIfNew(item)) {
+					this.writer.write(item);
+					this.writer.newLine();
+				}
+			}
+			if (flush) {
+				this.writer.flush();
+			}
+		} catch (IOException e) {
+			log.error("An error occurred while writing a batch to the file, details: {}", e.getMessage());
+		}
+	}
+
+	private ByteBuffer encodeBatch(List<String> batch) {
+		var content = new StringBuilder();
+		for (String item : batch) {
+			if (this.deduplication.markIfNew(item)) {
+				content.append(item).append(System.lineSeparator());
+			}
+		}
+		return StandardCharsets.UTF_8.encode(CharBuffer.wrap(content));
+	}
+
+	private void writeChunk(ByteBuffer chunk, boolean flush) {
+		try {
+			this.output.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+			if (flush) {
+				this.output.flush();
+			}
+		} catch (IOException e) {
+			log.error("An error occurred while writing a chunk to the file, details: {}", e.getMessage());
+		}
+	}
+
 	private void write(String content) {
 		try {
 			this.writer.write(content);
@@ -0,0 +1,74 @@
+package org.ablonewolf.batchingOperators;
+
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Describes how a {@link FileWriter} groups incoming lines into batches and when it flushes them to disk.
+ * <p>
+ * Every batch is written with a single hop to a worker thread, and, unless the policy defers flushing to completion,
+ * with a single flush. Batches are closed by size, by time, or by whichever of the two comes first.
+ * <p>
+ * Methods:<br>
+ * - {@link #everyLines(int)}: batches of a fixed number of lines, flushed after each batch.<br>
+ * - {@link #every(Duration)}: batches of whatever arrived within a time window, flushed after each batch.<br>
+ * - {@link #everyLinesOrInterval(int, Duration)}: batches closed by size or time, whichever comes first.<br>
+ * - {@link #onCompletion()}: batches of {@value #DEFAULT_BATCH_SIZE} lines, flushed only when the file is closed.
+ *
+ * @param maxLines     the maximum number of lines in a batch, or {@code null} if batches are closed by time only
+ * @param maxDelay     the maximum time a batch stays open, or {@code null} if batches are closed by size only
+ * @param flushBatches whether every batch is flushed once written
+ */
+public record FlushPolicy(Integer maxLines,
+						  Duration maxDelay,
+						  boolean flushBatches) {
+
+	public static final int DEFAULT_BATCH_SIZE = 512;
+
+	/**
+	 * The batch size standing in for "no limit" when batches are closed by time only. The fair variant of
+	 * {@link Flux#bufferTimeout(int, Duration, boolean)} sizes its queue as four times the batch size, so
+	 * {@link Integer#MAX_VALUE} would overflow; a quarter of it still gets an unbounded queue.
+	 */
+	private static final int UNBOUNDED_LINES = Integer.MAX_VALUE / 4;
+
+	public FlushPolicy {
+		if (Objects.isNull(maxLines) && Objects.isNull(maxDelay)) {
+			throw new IllegalArgumentException("A flush policy needs a maximum number of lines, a delay, or both");
+		}
+		if (Objects.nonNull(maxLines) && maxLines < 1) {
+			throw new IllegalArgumentException("maxLines must be at least 1, but was " + maxLines);
+		}
+		if (Objects.nonNull(maxDelay) && (maxDelay.isZero() || maxDelay.isNegative())) {
+			throw new IllegalArgumentException("maxDelay must be positive, but was " + maxDelay);
+		}
+	}
+
+	public static FlushPolicy everyLines(int lines) {
+		return new FlushPolicy(lines, null, true);
+	}
+
+	public static FlushPolicy every(Duration interval) {
+		return new FlushPolicy(null, interval, true);
+	}
+
+	public static FlushPolicy everyLinesOrInterval(int lines, Duration interval) {
+		return new FlushPolicy(lines, interval, true);
+	}
+
+	public static FlushPolicy onCompletion() {
+		return new FlushPolicy(DEFAULT_BATCH_SIZE, null, false);
+	}
+
+	Flux<List<String>> batch(Flux<String> content) {
+		if (Objects.isNull(maxDelay)) {
+			return content.buffer(maxLines);
+		}
+		// with fair backpressure, a batch closed by the timer waits for the writer instead of failing with an overflow
+		int lines = Objects.isNull(maxLines) ? UNBOUNDED_LINES : maxLines;
+		return content.bufferTimeout(lines, maxDelay, true);
+	}
+}
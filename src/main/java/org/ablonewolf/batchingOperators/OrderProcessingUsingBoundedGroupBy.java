@@ -0,0 +1,49 @@
+package org.ablonewolf.batchingOperators;
+
+import org.ablonewolf.common.BoundedGroupBy;
+import org.ablonewolf.common.Util;
+import org.ablonewolf.model.ItemOrder;
+import org.ablonewolf.services.OrderProcessingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Processes the same endless stream of orders as {@link OrderProcessingUsingGroupBy}, grouped by category, but with
+ * a {@link BoundedGroupBy} instead of {@code groupBy}, so that the stream keeps flowing however many categories
+ * there are.
+ * <p>
+ * Key Operations:<br>
+ * - Streams random orders at regular intervals, without filtering out categories.<br>
+ * - Keeps at most 5 categories open at once, evicting the least recently used one when another arrives, and evicts
+ * categories that received no order for a second.<br>
+ * - Processes every category with the rules of {@link OrderProcessingService}, dropping categories without a rule.
+ * <br>
+ * - Logs the number of open groups, the buffered orders per group and the number of evictions every 5 seconds.
+ */
+public class OrderProcessingUsingBoundedGroupBy {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderProcessingUsingBoundedGroupBy.class);
+
+	public static void main(String[] args) {
+		var groupBy = new BoundedGroupBy<String, ItemOrder>("Categories", ItemOrder::category, 5, Duration.ofSeconds(1));
+
+		orderStream()
+				.transform(groupBy.process((category, orders) -> orders.transform(OrderProcessingService.process())))
+				.subscribe(Util.subscriber("Order Processing Subscriber"));
+
+		Flux.interval(Duration.ofSeconds(5))
+				.subscribe(tick -> log.info("{} open groups, buffered orders {}, {} evictions",
+											groupBy.getGroupCount(), groupBy.getBufferedItems(),
+											groupBy.getEvictions()));
+
+		Util.sleepSeconds(30L);
+	}
+
+	private static Flux<ItemOrder> orderStream() {
+		return Flux.interval(Duration.ofMillis(100))
+				.map(i -> ItemOrder.create());
+	}
+}
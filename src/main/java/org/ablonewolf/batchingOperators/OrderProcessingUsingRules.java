@@ -0,0 +1,41 @@
+package org.ablonewolf.batchingOperators;
+
+import org.ablonewolf.common.Util;
+import org.ablonewolf.model.ItemOrder;
+import org.ablonewolf.services.OrderProcessingService;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Processes the same stream of orders as {@link OrderProcessingUsingGroupBy}, but without grouping: the rules of
+ * {@link OrderProcessingService} are compiled into a single operator that routes every order to the rule of its
+ * category.
+ * <p>
+ * Key Operations:<br>
+ * - Streams random orders at regular intervals.<br>
+ * - Applies {@link OrderProcessingService#process()}, which drops orders of categories without a rule.<br>
+ * - Registers a rule for the "Books" category while the stream is running, after which books are processed as
+ * well.
+ */
+public class OrderProcessingUsingRules {
+
+	public static void main(String[] args) {
+
+		orderStream()
+				.transform(OrderProcessingService.process())
+				.subscribe(Util.subscriber("Order Processing Subscriber"));
+
+		Util.sleepSeconds(10L);
+
+		OrderProcessingService.registerRule("Books", (order, emitter) ->
+				emitter.accept(new ItemOrder(order.item(), order.category(), order.price() / 2)));
+
+		Util.sleepSeconds(20L);
+	}
+
+	private static Flux<ItemOrder> orderStream() {
+		return Flux.interval(Duration.ofMillis(100))
+				.map(i -> ItemOrder.create());
+	}
+}
@@ -0,0 +1,54 @@
+package org.ablonewolf.batchingOperators;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@link DeduplicationStrategy} that only remembers recently seen items, so its memory is bounded by the maximum
+ * number of items rather than by the length of the stream.
+ * <p>
+ * Items are kept in an access-ordered {@link LinkedHashMap}: once more than {@code maxItems} are remembered, the
+ * least recently seen one is forgotten. An item that has not been seen for longer than the time-to-live is treated
+ * as new again. Access is synchronized, as every lookup also reorders the map.
+ */
+class RecentItemsDeduplication implements DeduplicationStrategy {
+
+	private final long timeToLiveNanos;
+	private final Map<String, Long> lastSeen;
+	private long characters = 0;
+
+	RecentItemsDeduplication(int maxItems, Duration timeToLive) {
+		if (maxItems < 1) {
+			throw new IllegalArgumentException("maxItems must be at least 1, but was " + maxItems);
+		}
+		this.timeToLiveNanos = Objects.isNull(timeToLive) ? Long.MAX_VALUE : timeToLive.toNanos();
+		this.lastSeen = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+				if (size() > maxItems) {
+					characters -= eldest.getKey().length();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	@Override
+	public synchronized boolean markIfNew(String item) {
+		long now = System.nanoTime();
+		Long previous = lastSeen.put(item, now);
+		if (Objects.isNull(previous)) {
+			characters += item.length();
+			return true;
+		}
+		return now - previous > timeToLiveNanos;
+	}
+
+	@Override
+	public synchronized long estimatedMemoryBytes() {
+		return lastSeen.size() * ExactDeduplication.ENTRY_OVERHEAD_BYTES + characters;
+	}
+}
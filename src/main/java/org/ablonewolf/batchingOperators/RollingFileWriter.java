@@ -0,0 +1,230 @@
+package org.ablonewolf.batchingOperators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A reusable file sink that writes a continuous stream of lines into a sequence of files, rotating to a new file
+ * whenever a {@link RollingPolicy} limit is reached.
+ * <p>
+ * Functionality:<br>
+ * - Lines are written on a {@link Schedulers#boundedElastic()} worker, so the producer never performs file I/O and is
+ * only slowed down through backpressure.<br>
+ * - While a file is being written, the next one is already created and opened in the background, so rotating only
+ * swaps the writer instead of waiting for the file system.<br>
+ * - Files are synced to disk with {@code fsync} only once, when they are closed, and closing also happens in the
+ * background so it does not stall the stream.<br>
+ * - The returned Flux emits the path of every file once it has been synced and closed, in order.
+ * <p>
+ * Compared to building a new {@link FileWriter} per {@code window(Duration)}, rotation can also be driven by size and
+ * record count, and no lines are deduplicated.
+ */
+public class RollingFileWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(RollingFileWriter.class);
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final RollingPolicy policy;
+	private final Set<RollingFile> unclosed = new LinkedHashSet<>();
+	private int nextIndex = 0;
+	private RollingFile current;
+	private CompletableFuture<RollingFile> next;
+	private boolean discarded = false;
+
+	private RollingFileWriter(RollingPolicy policy) {
+		this.policy = policy;
+	}
+
+	/**
+	 * Writes the content to a sequence of rolling files.
+	 *
+	 * @param content the lines to write
+	 * @param policy  when to rotate files and how to name them
+	 * @return a Flux emitting the path of each file once it has been closed, completing after the last one
+	 */
+	public static Flux<Path> write(Flux<String> content, RollingPolicy policy) {
+		return Flux.defer(() -> {
+			var writer = new RollingFileWriter(policy);
+			return content
+					.publishOn(Schedulers.boundedElastic())
+					.<RollingFile>handle((line, sink) -> {
+						try {
+							RollingFile rotated = writer.append(line);
+							if (Objects.nonNull(rotated)) {
+								sink.next(rotated);
+							}
+						} catch (IOException | UncheckedIOException e) {
+							sink.error(e);
+						}
+					})
+					.concatWith(Mono.fromSupplier(writer::takeCurrent))
+					.concatMap(writer::closeInBackground)
+					.doFinally(signalType -> writer.discard());
+		});
+	}
+
+	private synchronized RollingFile append(String line) throws IOException {
+		if (discarded) {
+			// a line still being handed over when the stream was cancelled, which must not open new files
+			return null;
+		}
+		RollingFile rotated = null;
+		if (Objects.nonNull(current)
+				&& policy.shouldRotate(current.bytes, current.records, System.nanoTime() - current.openedAt)) {
+			rotated = current;
+			unclosed.add(rotated);
+			current = null;
+		}
+		if (Objects.isNull(current)) {
+			current = Objects.isNull(next) ? openNext() : next.join();
+			current.openedAt = System.nanoTime();
+			next = prepareNext();
+			log.info("Rolled over to file {}", current.path);
+		}
+		current.write(line);
+		return rotated;
+	}
+
+	private synchronized RollingFile takeCurrent() {
+		RollingFile file = current;
+		if (Objects.nonNull(file)) {
+			unclosed.add(file);
+		}
+		current = null;
+		return file;
+	}
+
+	/**
+	 * Releases whatever is left once the stream terminates: the pre-allocated next file, which was never written, is
+	 * deleted, and the current file and rotated files still waiting to be closed, left behind by an error or a
+	 * cancellation, are closed.
+	 */
+	private synchronized void discard() {
+		discarded = true;
+		if (Objects.nonNull(next)) {
+			next.thenAccept(file -> {
+				file.closeQuietly();
+				try {
+					Files.deleteIfExists(file.path);
+				} catch (IOException e) {
+					log.warn("Failed to delete unused file {}", file.path, e);
+				}
+			});
+			next = null;
+		}
+		if (Objects.nonNull(current)) {
+			current.closeQuietly();
+			current = null;
+		}
+		unclosed.forEach(RollingFile::closeQuietly);
+		unclosed.clear();
+	}
+
+	/**
+	 * Takes a rotated file out of those waiting to be closed, so that it is closed exactly once, either in the
+	 * background or by {@link #discard()}.
+	 *
+	 * @return {@code false} if the file was already closed by {@link #discard()}
+	 */
+	private synchronized boolean claimForClosing(RollingFile file) {
+		return unclosed.remove(file);
+	}
+
+	private CompletableFuture<RollingFile> prepareNext() {
+		Path path = nextPath();
+		return Mono.fromCallable(() -> new RollingFile(path))
+				.subscribeOn(Schedulers.boundedElastic())
+				.toFuture();
+	}
+
+	private RollingFile openNext() throws IOException {
+		return new RollingFile(nextPath());
+	}
+
+	private Path nextPath() {
+		return Path.of(policy.fileNameFormat().formatted(nextIndex++));
+	}
+
+	private Mono<Path> closeInBackground(RollingFile file) {
+		return Mono.fromCallable(() -> {
+					if (!claimForClosing(file)) {
+						return null;
+					}
+					file.syncAndClose();
+					log.info("File {} closed after {} record(s) and {} byte(s)", file.path, file.records, file.bytes);
+					return file.path;
+				})
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private static final class RollingFile {
+
+		private final Path path;
+		private final FileOutputStream stream;
+		private final BufferedWriter writer;
+		private long bytes = 0;
+		private long records = 0;
+		private long openedAt;
+
+		private RollingFile(Path path) throws IOException {
+			this.path = path;
+			this.stream = new FileOutputStream(path.toFile());
+			this.writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+		}
+
+		private void write(String line) throws IOException {
+			writer.write(line);
+			writer.newLine();
+			bytes += utf8Length(line) + System.lineSeparator().length();
+			records++;
+		}
+
+		private void syncAndClose() throws IOException {
+			writer.flush();
+			stream.getChannel().force(true);
+			writer.close();
+		}
+
+		private void closeQuietly() {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				log.warn("Failed to close file {}", path, e);
+			}
+		}
+
+		private static long utf8Length(String line) {
+			long length = 0;
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (c < 0x80) {
+					length += 1;
+				} else if (c < 0x800) {
+					length += 2;
+				} else if (Character.isHighSurrogate(c)) {
+					length += 4;
+					i++;
+				} else {
+					length += 3;
+				}
+			}
+			return length;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.ablonewolf.batchingOperators;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Describes when a {@link RollingFileWriter} closes the current file and moves on to the next one, and how files are
+ * named.
+ * <p>
+ * A file is rotated as soon as any configured limit is reached; limits left as {@code null} are not checked. Files
+ * are named by formatting {@code fileNameFormat} with an index that starts at 0 and grows by one per file, such as
+ * {@code src/main/resources/country/country_names_%d.txt}.
+ * <p>
+ * Methods:<br>
+ * - {@link #of(String)}: creates a policy that never rotates, to be refined with the methods below.<br>
+ * - {@link #withMaxBytes(long)}: rotates once the file holds at least the given number of bytes.<br>
+ * - {@link #withMaxRecords(long)}: rotates once the file holds the given number of lines.<br>
+ * - {@link #withMaxAge(Duration)}: rotates once the file has been open for the given time. The age is checked when a
+ * line arrives, so no empty files are created while the stream is idle.
+ *
+ * @param fileNameFormat the format of file names, with a single {@code %d} placeholder for the index
+ * @param maxBytes       the size after which a file is rotated, or {@code null}
+ * @param maxRecords     the number of lines after which a file is rotated, or {@code null}
+ * @param maxAge         the time after which a file is rotated, or {@code null}
+ */
+public record RollingPolicy(String fileNameFormat,
+							Long maxBytes,
+							Long maxRecords,
+							Duration maxAge) {
+
+	public RollingPolicy {
+		Objects.requireNonNull(fileNameFormat, "fileNameFormat");
+	}
+
+	public static RollingPolicy of(String fileNameFormat) {
+		return new RollingPolicy(fileNameFormat, null, null, null);
+	}
+
+	public RollingPolicy withMaxBytes(long maxBytes) {
+		return new RollingPolicy(fileNameFormat, maxBytes, maxRecords, maxAge);
+	}
+
+	public RollingPolicy withMaxRecords(long maxRecords) {
+		return new RollingPolicy(fileNameFormat, maxBytes, maxRecords, maxAge);
+	}
+
+	public RollingPolicy withMaxAge(Duration maxAge) {
+		return new RollingPolicy(fileNameFormat, maxBytes, maxRecords, maxAge);
+	}
+
+	boolean shouldRotate(long bytes, long records, long ageNanos) {
+		return (Objects.nonNull(maxBytes) && bytes >= maxBytes)
+				|| (Objects.nonNull(maxRecords) && records >= maxRecords)
+				|| (Objects.nonNull(maxAge) && ageNanos >= maxAge.toNanos());
+	}
+}
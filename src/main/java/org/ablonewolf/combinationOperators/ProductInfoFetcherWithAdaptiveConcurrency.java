@@ -0,0 +1,45 @@
+package org.ablonewolf.combinationOperators;
+
+import org.ablonewolf.common.AdaptiveConcurrencyLimiter;
+import org.ablonewolf.common.Util;
+import org.ablonewolf.services.impl.ExternalServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Demonstrates fetching product information with a concurrency that adapts to the external service, instead of the
+ * fixed concurrency of {@code flatMap}.
+ * <p>
+ * The class operates as follows:<br>
+ * - A range of product IDs are generated using {@link Flux#range(int, int)}.<br>
+ * - Each product ID is mapped to {@link ExternalServiceClient#getProductInfo(Integer)} through
+ * {@link AdaptiveConcurrencyLimiter#flatMap}, which grows the number of requests in flight while the service keeps
+ * answering quickly and shrinks it once responses slow down or fail.<br>
+ * - Every second, the current limit and the number of requests in flight are logged.
+ * <p>
+ * The main thread is paused to allow the reactive stream to complete processing.
+ */
+public class ProductInfoFetcherWithAdaptiveConcurrency {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductInfoFetcherWithAdaptiveConcurrency.class);
+
+	public static void main(String[] args) {
+		var serviceClient = new ExternalServiceClient();
+		var limiter = AdaptiveConcurrencyLimiter.withDefaults("product-service");
+
+		var metrics = Flux.interval(Duration.ofSeconds(1))
+				.subscribe(tick -> log.info("Concurrency limit: {}, requests in flight: {}", limiter.getLimit(),
+											limiter.getInFlight()));
+
+		Flux.range(1, 500)
+				.transform(limiter.flatMap(serviceClient::getProductInfo))
+				.count()
+				.doFinally(signalType -> metrics.dispose())
+				.subscribe(count -> log.info("Received product info for {} products", count));
+
+		Util.sleepSeconds(10L);
+	}
+}
@@ -0,0 +1,45 @@
+package org.ablonewolf.combinationOperators;
+
+import org.ablonewolf.common.HttpClientConfig;
+import org.ablonewolf.common.Util;
+import org.ablonewolf.server.ExternalServiceStandIn;
+import org.ablonewolf.services.impl.BatchingExternalServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Demonstrates resolving many product lookups with a few bulk requests through a
+ * {@link BatchingExternalServiceClient}.
+ * <p>
+ * The class works as follows:<br>
+ * - Starts an {@link ExternalServiceStandIn} on a free port, so no external service is needed.<br>
+ * - Requests the product information of 1000 products concurrently using the flatMap operator.<br>
+ * - The client collects the lookups into batches of up to 100 product IDs, so the products are fetched with about
+ * 10 requests instead of 3000.<br>
+ * - Logs the number of products received, then disposes the client and the server.
+ */
+public class ProductInfoFetcherWithBatching {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductInfoFetcherWithBatching.class);
+
+	public static void main(String[] args) {
+		var server = ExternalServiceStandIn.start(0);
+		var config = HttpClientConfig.fromSystemProperties()
+				.withBaseUrl("http://localhost:%d/".formatted(server.port()));
+		var serviceClient = new BatchingExternalServiceClient(config, 100, Duration.ofMillis(10), 8);
+
+		Flux.range(1, 1000)
+				.flatMap(serviceClient::getProductInfo)
+				.count()
+				.doFinally(signalType -> {
+					serviceClient.dispose();
+					server.dispose();
+				})
+				.subscribe(count -> log.info("Received product info for {} products", count));
+
+		Util.sleepSeconds(3L);
+	}
+}
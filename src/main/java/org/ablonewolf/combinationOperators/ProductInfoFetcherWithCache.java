@@ -0,0 +1,37 @@
+package org.ablonewolf.combinationOperators;
+
+import org.ablonewolf.common.Util;
+import org.ablonewolf.model.ProductInfo;
+import org.ablonewolf.services.impl.CachingExternalServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+/**
+ * Demonstrates fetching the same product information repeatedly through a {@link CachingExternalServiceClient}.
+ * <p>
+ * The product IDs 1 to 10 are requested three times over, concurrently, using the flatMap operator. Only the first
+ * lookup of every product reaches the external service; lookups made while it is in flight share its response, and
+ * later lookups are answered from the cache.
+ * <p>
+ * The main thread is paused to allow the reactive stream to complete processing.
+ */
+public class ProductInfoFetcherWithCache {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductInfoFetcherWithCache.class);
+
+	public static void main(String[] args) {
+		var serviceClient = new CachingExternalServiceClient();
+
+		Flux.range(1, 10)
+				.repeat(2)
+				.flatMap(serviceClient::getProductInfo)
+				.subscribe(ProductInfoFetcherWithCache::logProductInfo);
+
+		Util.sleepSeconds(2L);
+	}
+
+	private static void logProductInfo(ProductInfo productInfo) {
+		log.info("Product info for product {}", productInfo);
+	}
+}
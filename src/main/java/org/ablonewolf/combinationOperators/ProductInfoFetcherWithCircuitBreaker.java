@@ -0,0 +1,48 @@
+package org.ablonewolf.combinationOperators;
+
+import org.ablonewolf.common.Util;
+import org.ablonewolf.model.ProductInfo;
+import org.ablonewolf.services.impl.ResilientExternalServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Demonstrates fetching product information through a {@link ResilientExternalServiceClient}, which fails fast
+ * while the external service is unavailable.
+ * <p>
+ * The class operates as follows:<br>
+ * - Requests the product information of one product every 100 ms.<br>
+ * - A failed lookup is logged with its cause and the state of the circuit breaker, and the stream carries on.<br>
+ * - When the external service is stopped while the class runs, the breaker opens after a number of failed lookups,
+ * and further lookups are rejected immediately instead of reaching the service. Once the service is back, a few trial
+ * lookups close the breaker again.
+ */
+public class ProductInfoFetcherWithCircuitBreaker {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductInfoFetcherWithCircuitBreaker.class);
+
+	public static void main(String[] args) {
+		var serviceClient = new ResilientExternalServiceClient();
+
+		Flux.interval(Duration.ofMillis(100))
+				.map(tick -> (int) (tick % 100) + 1)
+				.concatMap(productId -> serviceClient.getProductInfo(productId)
+						.doOnNext(ProductInfoFetcherWithCircuitBreaker::logProductInfo)
+						.onErrorResume(e -> {
+							log.warn("Lookup of product {} failed while the circuit breaker is {}: {}", productId,
+									 serviceClient.getCircuitBreakerState(), e.getMessage());
+							return Mono.empty();
+						}))
+				.subscribe();
+
+		Util.sleepSeconds(60L);
+	}
+
+	private static void logProductInfo(ProductInfo productInfo) {
+		log.info("Product info for product {}", productInfo);
+	}
+}
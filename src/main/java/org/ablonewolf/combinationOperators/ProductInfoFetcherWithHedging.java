@@ -0,0 +1,42 @@
+package org.ablonewolf.combinationOperators;
+
+import org.ablonewolf.common.HedgingPolicy;
+import org.ablonewolf.common.HttpClientConfig;
+import org.ablonewolf.common.Util;
+import org.ablonewolf.model.ProductInfo;
+import org.ablonewolf.services.impl.ExternalServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+/**
+ * Demonstrates fetching product information with hedged requests, so that a single slow name, price or review lookup
+ * does not hold back the whole {@code Mono.zip} in {@link ExternalServiceClient#getProductInfo(Integer)}.
+ * <p>
+ * The class operates as follows:<br>
+ * - The client is created with {@link HedgingPolicy#p95()}, so any lookup still outstanding after the observed p95
+ * latency of its endpoint is sent a second time, for at most 5% of the lookups.<br>
+ * - Product information for a range of product IDs is fetched using the flatMap operator, the first copy of each
+ * lookup to answer is used, and the other one is cancelled.<br>
+ * - The resulting product information is logged.
+ * <p>
+ * The main thread is paused to allow the reactive stream to complete processing.
+ */
+public class ProductInfoFetcherWithHedging {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductInfoFetcherWithHedging.class);
+
+	public static void main(String[] args) {
+		var serviceClient = new ExternalServiceClient(HttpClientConfig.fromSystemProperties(), HedgingPolicy.p95());
+
+		Flux.range(1, 100)
+				.flatMap(serviceClient::getProductInfo)
+				.subscribe(ProductInfoFetcherWithHedging::logProductInfo);
+
+		Util.sleepSeconds(5L);
+	}
+
+	private static void logProductInfo(ProductInfo productInfo) {
+		log.info("Product info for product {}", productInfo);
+	}
+}
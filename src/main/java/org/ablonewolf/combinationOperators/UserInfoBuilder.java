@@ -23,8 +23,7 @@ import reactor.core.publisher.Mono;
  * - Combines the user's order list and balance into a {@link UserInformation} record using the Project Reactor
  * {@link Mono#zip} operator.<br>
  * - Utilizes a subscriber created using the {@link Util#subscriber} method to process the aggregated
- * user information stream.<br>
- * - Introduces artificial delays for processing and simulates asynchronous behavior in a reactive pipeline.
+ * user information stream.
  * <p>
  * The main method orchestrates the overall workflow:<br>
  * - It processes the stream of users, transforms user details into their corresponding aggregated
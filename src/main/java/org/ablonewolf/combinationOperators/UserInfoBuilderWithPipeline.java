@@ -0,0 +1,32 @@
+package org.ablonewolf.combinationOperators;
+
+import org.ablonewolf.common.Util;
+import org.ablonewolf.services.UserInformationPipeline;
+import org.ablonewolf.services.UserService;
+
+/**
+ * Builds the same {@link org.ablonewolf.model.UserInformation} views as {@link UserInfoBuilder}, but through a
+ * {@link UserInformationPipeline}, which joins users on parallel rails with bounded concurrency.
+ * <p>
+ * The main method:<br>
+ * - Emits one complete view per user with {@link UserInformationPipeline#aggregate}.<br>
+ * - Emits every user's balance first and their orders in chunks afterward with
+ * {@link UserInformationPipeline#aggregateIncrementally}.<br>
+ * - Logs the latency of every stage once each run completes.
+ */
+public class UserInfoBuilderWithPipeline {
+
+	public static void main(String[] args) {
+		var pipeline = UserInformationPipeline.withDefaults();
+
+		pipeline.aggregate(UserService.getAllUsers())
+				.subscribe(Util.subscriber("Complete User Information Subscriber"));
+
+		Util.sleepSeconds(1L);
+
+		pipeline.aggregateIncrementally(UserService.getAllUsers())
+				.subscribe(Util.subscriber("Incremental User Information Subscriber"));
+
+		Util.sleepSeconds(1L);
+	}
+}
@@ -1,18 +1,58 @@
 package org.ablonewolf.common;
 
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 import reactor.netty.resources.LoopResources;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * an abstract http client to consume APIs from foreign services
+ * <p>
+ * All clients built from the same {@link HttpClientConfig} share one {@link HttpClient}, and with it one set of
+ * event loop threads and one connection pool, instead of every instance creating its own single-threaded loop.
  */
 public abstract class AbstractHttpClient {
 
-    private static final String BASE_URL = "http://localhost:7070/";
+    private static final Map<HttpClientConfig, HttpClient> SHARED_CLIENTS = new ConcurrentHashMap<>();
     protected final HttpClient httpClient;
 
     public AbstractHttpClient() {
-        var loopResources = LoopResources.create("worker_thread", 1, true);
-        this.httpClient = HttpClient.create().runOn(loopResources).baseUrl(BASE_URL);
+        this(HttpClientConfig.fromSystemProperties());
+    }
+
+    protected AbstractHttpClient(HttpClientConfig config) {
+        this.httpClient = SHARED_CLIENTS.computeIfAbsent(config, AbstractHttpClient::createHttpClient);
+    }
+
+    private static HttpClient createHttpClient(HttpClientConfig config) {
+        var loopResources = LoopResources.create("worker_thread", config.eventLoopThreads(), true);
+        var connectionProviderBuilder = ConnectionProvider.builder("external-service")
+                .maxConnections(config.maxConnections())
+                .pendingAcquireMaxCount(config.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(config.pendingAcquireTimeout())
+                .maxIdleTime(config.maxIdleTime())
+                .evictInBackground(config.evictionInterval());
+        if (config.http2()) {
+            // the number of streams the client opens per connection is capped by the pool, whereas the HTTP/2
+            // settings of the client only tell the server how many streams it may open towards the client
+            connectionProviderBuilder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(config.maxConnections())
+                    .maxConcurrentStreams(config.maxConcurrentStreams())
+                    .build());
+        }
+        var connectionProvider = connectionProviderBuilder.build();
+
+        var httpClient = HttpClient.create(connectionProvider)
+                .runOn(loopResources)
+                .baseUrl(config.baseUrl());
+
+        if (config.http2()) {
+            httpClient = httpClient.protocol(HttpProtocol.HTTP11, HttpProtocol.H2C);
+        }
+        return httpClient;
     }
 }
@@ -0,0 +1,235 @@
+package org.ablonewolf.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Limits how many calls to a remote service are in flight at once, adapting the limit to how the service responds
+ * instead of relying on a fixed {@code flatMap} concurrency.
+ * <p>
+ * The limit follows an additive-increase/multiplicative-decrease (AIMD) scheme:<br>
+ * - A call that succeeds within {@code latencyTolerance} times the baseline latency grows the limit by
+ * {@code 1 / limit}, so the limit grows by about one per round of calls, as long as the limit is actually in use.<br>
+ * - A call that fails, or succeeds slower than that, shrinks the limit by {@code backoffRatio}.<br>
+ * - The baseline latency is the lowest latency observed, drifting slowly upward so that it follows a service that has
+ * become permanently slower.<br>
+ * - The limit always stays between {@code minLimit} and {@code maxLimit}.
+ * <p>
+ * Calls over the limit wait in a FIFO queue and are started as earlier calls complete. A call cancelled while waiting
+ * leaves the queue, and a call cancelled while running releases its slot without affecting the limit. A slot granted
+ * to a call that is cancelled at the same moment is released as well. The current limit and the number of calls in
+ * flight are exposed through {@link #getLimit()} and {@link #getInFlight()}.
+ * <p>
+ * Granted slots are handed to their calls one after another by a single drain loop, so that a call completing
+ * synchronously, and granting the slot to the next one, does not start that call deeper on the same stack.
+ * <p>
+ * Usage:
+ * Wrap single calls with {@link #wrap(Mono)}, or replace {@code flatMap(mapper)} with
+ * {@code transform(limiter.flatMap(mapper))}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+	private static final double BASELINE_DRIFT = 0.01;
+
+	private final String name;
+	private final int minLimit;
+	private final int maxLimit;
+	private final double backoffRatio;
+	private final double latencyTolerance;
+	private final Queue<Waiter> waiting = new ArrayDeque<>();
+	private final Queue<Waiter> granted = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger grantsWip = new AtomicInteger();
+
+	private double limit;
+	private int inFlight = 0;
+	private double baselineLatencyNanos = Double.MAX_VALUE;
+
+	/**
+	 * @param name             the name used when logging changes of the limit
+	 * @param initialLimit     the limit to start with
+	 * @param minLimit         the lowest the limit may shrink to, at least 1
+	 * @param maxLimit         the highest the limit may grow to
+	 * @param backoffRatio     the factor applied to the limit on a failed or slow call, between 0 and 1
+	 * @param latencyTolerance how many times the baseline latency a call may take before it counts as slow
+	 */
+	public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+									  double latencyTolerance) {
+		if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+		}
+		if (backoffRatio <= 0 || backoffRatio >= 1) {
+			throw new IllegalArgumentException("backoffRatio must be between 0 and 1, but was " + backoffRatio);
+		}
+		this.name = name;
+		this.limit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.backoffRatio = backoffRatio;
+		this.latencyTolerance = latencyTolerance;
+	}
+
+	public static AdaptiveConcurrencyLimiter withDefaults(String name) {
+		return new AdaptiveConcurrencyLimiter(name, 20, 1, 1000, 0.9, 2.0);
+	}
+
+	/**
+	 * Runs the call once a slot is available, and feeds its outcome and latency back into the limit.
+	 */
+	public <T> Mono<T> wrap(Mono<T> call) {
+		return Mono.usingWhen(acquire(),
+							  permit -> call,
+							  permit -> release(permit, true),
+							  (permit, error) -> release(permit, false),
+							  permit -> release(permit, null));
+	}
+
+	/**
+	 * An operator to be used with {@code transform}, mapping every element with the given call while letting the
+	 * limiter decide how many calls run at once.
+	 */
+	public <T, R> Function<Flux<T>, Flux<R>> flatMap(Function<T, Mono<R>> mapper) {
+		return flux -> flux.flatMap(item -> wrap(mapper.apply(item)), maxLimit);
+	}
+
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	private Mono<Permit> acquire() {
+		return Mono.<Permit>create(sink -> {
+					var waiter = new Waiter(sink);
+					sink.onCancel(() -> {
+						if (waiter.done.compareAndSet(false, true)) {
+							cancelWaiting(waiter);
+						}
+					});
+
+					synchronized (this) {
+						if (inFlight < (int) limit) {
+							if (waiter.done.compareAndSet(false, true)) {
+								inFlight++;
+								granted.add(waiter);
+							}
+						} else {
+							waiting.add(waiter);
+						}
+					}
+					deliverGrants();
+				})
+				// a permit granted to a call cancelled before receiving it is discarded by the sink, not lost
+				.doOnDiscard(Permit.class, permit -> releaseNow(permit, null));
+	}
+
+	/**
+	 * Hands granted slots to their calls. Only one thread runs the loop at a time; grants made while it runs, also
+	 * by calls it starts, are picked up by the loop instead of starting a nested one.
+	 */
+	private void deliverGrants() {
+		if (grantsWip.getAndIncrement() != 0) {
+			return;
+		}
+		do {
+			Waiter waiter;
+			while (Objects.nonNull(waiter = granted.poll())) {
+				waiter.sink.success(new Permit(System.nanoTime()));
+			}
+		} while (grantsWip.decrementAndGet() != 0);
+	}
+
+	private synchronized void cancelWaiting(Waiter waiter) {
+		waiting.remove(waiter);
+	}
+
+	/**
+	 * @param succeeded {@code true} for a successful call, {@code false} for a failed one, {@code null} for a
+	 *                  cancelled one which does not affect the limit
+	 */
+	private Mono<Void> release(Permit permit, Boolean succeeded) {
+		return Mono.fromRunnable(() -> releaseNow(permit, succeeded));
+	}
+
+	private void releaseNow(Permit permit, Boolean succeeded) {
+		if (!permit.released().compareAndSet(false, true)) {
+			return;
+		}
+		synchronized (this) {
+			inFlight--;
+			if (Boolean.TRUE.equals(succeeded)) {
+				onSuccess(System.nanoTime() - permit.startedAt());
+			} else if (Boolean.FALSE.equals(succeeded)) {
+				decrease();
+			}
+			while (inFlight < (int) limit && !waiting.isEmpty()) {
+				Waiter waiter = waiting.poll();
+				if (waiter.done.compareAndSet(false, true)) {
+					inFlight++;
+					granted.add(waiter);
+				}
+			}
+		}
+		deliverGrants();
+	}
+
+	private void onSuccess(long latencyNanos) {
+		if (latencyNanos < baselineLatencyNanos) {
+			baselineLatencyNanos = latencyNanos;
+		} else {
+			baselineLatencyNanos += (latencyNanos - baselineLatencyNanos) * BASELINE_DRIFT;
+		}
+
+		if (latencyNanos > baselineLatencyNanos * latencyTolerance) {
+			decrease();
+		} else if (inFlight + 1 >= limit / 2) {
+			setLimit(Math.min(maxLimit, limit + 1 / limit));
+		}
+	}
+
+	private void decrease() {
+		setLimit(Math.max(minLimit, limit * backoffRatio));
+	}
+
+	private void setLimit(double newLimit) {
+		if ((int) newLimit != (int) limit) {
+			log.debug("Concurrency limit of {} changed from {} to {}", name, (int) limit, (int) newLimit);
+		}
+		limit = newLimit;
+	}
+
+	/**
+	 * A granted slot, released once even if the call both completes and is cancelled.
+	 */
+	private record Permit(long startedAt,
+						  AtomicBoolean released) {
+
+		private Permit(long startedAt) {
+			this(startedAt, new AtomicBoolean());
+		}
+	}
+
+	/**
+	 * A call waiting for a slot; {@code done} is set by whichever comes first, being granted a slot or being cancelled.
+	 */
+	private record Waiter(MonoSink<Permit> sink,
+						  AtomicBoolean done) {
+
+		private Waiter(MonoSink<Permit> sink) {
+			this(sink, new AtomicBoolean());
+		}
+	}
+}
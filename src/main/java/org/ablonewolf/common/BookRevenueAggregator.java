@@ -0,0 +1,145 @@
+package org.ablonewolf.common;
+
+import org.ablonewolf.model.BookOrder;
+import org.ablonewolf.model.BookRevenueReport;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Aggregates the revenue of a stream of book orders per genre over time windows, emitting a
+ * {@link BookRevenueReport} at the end of every window, without keeping the orders themselves.
+ * <p>
+ * Every order is added to per-genre primitive accumulators as it arrives, so the memory used depends on the number
+ * of genres, not on the number of orders in a window, and emitting a report does not scan any orders.
+ * <p>
+ * Windows:<br>
+ * - {@link #tumbling(Duration)}: consecutive windows of the given length that do not overlap, reporting every order
+ * once, like {@code buffer(windowLength)} followed by {@link BookRevenueReport#generateReport}.<br>
+ * - {@link #sliding(Duration, Duration)}: windows of the given length, one ending every {@code slide}. The window is
+ * split into panes of length {@code slide}, each with its own accumulators, and a running total across the panes is
+ * kept. When the window slides, the oldest pane is subtracted from the total and reused, so the work per report does
+ * not depend on the window length either.
+ * <p>
+ * A report only contains genres with at least one order in its window. When the orders complete, a last report
+ * covers the window up to that point, and revenue beyond {@link Integer#MAX_VALUE} is reported as that value.
+ * <p>
+ * Usage:
+ * Apply with {@code transform(BookRevenueAggregator.tumbling(Duration.ofSeconds(5)))}.
+ */
+public final class BookRevenueAggregator {
+
+	private BookRevenueAggregator() {
+
+	}
+
+	public static Function<Flux<BookOrder>, Flux<BookRevenueReport>> tumbling(Duration windowLength) {
+		return sliding(windowLength, windowLength);
+	}
+
+	/**
+	 * @param windowLength the length of a window, a positive multiple of {@code slide}
+	 * @param slide        the time between the ends of two windows
+	 */
+	public static Function<Flux<BookOrder>, Flux<BookRevenueReport>> sliding(Duration windowLength, Duration slide) {
+		if (slide.isZero() || slide.isNegative() || windowLength.isZero() || windowLength.isNegative()
+				|| windowLength.toNanos() % slide.toNanos() != 0) {
+			throw new IllegalArgumentException("windowLength must be a positive multiple of slide");
+		}
+		int panes = (int) (windowLength.toNanos() / slide.toNanos());
+
+		return orders -> Flux.defer(() -> {
+			var window = new Window(panes);
+			Mono<Void> completed = orders
+					.doOnNext(window::add)
+					.then();
+
+			return Flux.interval(slide)
+					.map(tick -> window.slide())
+					.onBackpressureBuffer()
+					.takeUntilOther(completed)
+					.concatWith(Mono.fromSupplier(window::slide));
+		});
+	}
+
+	/**
+	 * The revenue and order count of every genre, per pane and in total over all panes. Orders are added and the
+	 * window slides on different threads, so both are synchronized.
+	 */
+	private static final class Window {
+
+		private final Map<String, Integer> genreIndexes = new HashMap<>();
+		private final long[][] paneRevenues;
+		private final int[][] paneOrders;
+		private String[] genres = new String[16];
+		private long[] revenues = new long[16];
+		private long[] orders = new long[16];
+		private int current = 0;
+
+		private Window(int panes) {
+			this.paneRevenues = new long[panes][16];
+			this.paneOrders = new int[panes][16];
+		}
+
+		private synchronized void add(BookOrder order) {
+			int genre = indexOf(order.genre());
+			paneRevenues[current][genre] += order.price();
+			paneOrders[current][genre]++;
+			revenues[genre] += order.price();
+			orders[genre]++;
+		}
+
+		/**
+		 * Reports the current window, then drops its oldest pane and starts a new one.
+		 */
+		private synchronized BookRevenueReport slide() {
+			Map<String, Integer> revenueReport = new HashMap<>();
+			for (int genre = 0; genre < genreIndexes.size(); genre++) {
+				if (orders[genre] > 0) {
+					revenueReport.put(genres[genre], (int) Math.min(revenues[genre], Integer.MAX_VALUE));
+				}
+			}
+
+			current = (current + 1) % paneRevenues.length;
+			long[] oldestRevenues = paneRevenues[current];
+			int[] oldestOrders = paneOrders[current];
+			for (int genre = 0; genre < genreIndexes.size(); genre++) {
+				revenues[genre] -= oldestRevenues[genre];
+				orders[genre] -= oldestOrders[genre];
+			}
+			Arrays.fill(oldestRevenues, 0);
+			Arrays.fill(oldestOrders, 0);
+
+			return new BookRevenueReport(LocalTime.now(), revenueReport);
+		}
+
+		private int indexOf(String genre) {
+			Integer index = genreIndexes.get(genre);
+			if (Objects.nonNull(index)) {
+				return index;
+			}
+
+			int added = genreIndexes.size();
+			if (added == genres.length) {
+				int capacity = added * 2;
+				genres = Arrays.copyOf(genres, capacity);
+				revenues = Arrays.copyOf(revenues, capacity);
+				orders = Arrays.copyOf(orders, capacity);
+				for (int pane = 0; pane < paneRevenues.length; pane++) {
+					paneRevenues[pane] = Arrays.copyOf(paneRevenues[pane], capacity);
+					paneOrders[pane] = Arrays.copyOf(paneOrders[pane], capacity);
+				}
+			}
+			genres[added] = genre;
+			genreIndexes.put(genre, added);
+			return added;
+		}
+	}
+}
@@ -0,0 +1,251 @@
+package org.ablonewolf.common;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Groups an endless stream by key and processes every group separately, like {@code groupBy(key).flatMap(...)},
+ * but with a bounded number of groups, so that a stream with many keys can neither hang nor buffer without limit.
+ * <p>
+ * A plain {@code groupBy} keeps a group open for as long as the stream runs. Once there are more keys than the
+ * {@code flatMap} concurrency, 256 by default, the groups that did not get a slot are never subscribed to, fill their
+ * buffers, and stop the whole stream. This operator closes groups instead:<br>
+ * - A group that received no element for {@code idleTimeout} is evicted: its elements flux completes once it has
+ * emitted everything routed to it, and a later element with the same key opens a new group.<br>
+ * - When an element with a new key arrives while {@code maxGroups} groups are open, the least recently used group
+ * is evicted to make room.<br>
+ * - Groups are processed with a concurrency of twice {@code maxGroups}, leaving room for evicted groups that are
+ * still draining.<br>
+ * - At most {@code maxBuffered} elements are taken from the source without having been consumed by their group, so
+ * a slow group slows the source down instead of growing its buffer.
+ * <p>
+ * Groups are evicted by completing them rather than cancelling them, so no element routed to a group is lost. If
+ * the processing of a group cancels it, a later element with its key opens a new group.
+ * <p>
+ * Metrics:<br>
+ * - {@link #getGroupCount()}: the number of open groups.<br>
+ * - {@link #getBufferedItems()}: per open group, the number of elements routed to it that it has not consumed yet.
+ * <br>
+ * - {@link #getEvictions()}: the number of groups evicted so far.
+ * <p>
+ * Usage:
+ * Apply with {@code transform(groupBy.process((key, group) -> ...))}. An instance keeps the groups of one stream,
+ * so each stream should use its own instance.
+ *
+ * @param <K> the type of the group keys
+ * @param <T> the type of the grouped elements
+ */
+public class BoundedGroupBy<K, T> {
+
+	private static final Logger log = LoggerFactory.getLogger(BoundedGroupBy.class);
+
+	private final String name;
+	private final Function<T, K> keySelector;
+	private final int maxGroups;
+	private final int maxBuffered;
+	private final long idleTimeoutNanos;
+	private final Duration sweepInterval;
+	private final Map<K, Group> groups = new ConcurrentHashMap<>();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param name        the name used when logging evictions
+	 * @param keySelector extracts the key of the group an element belongs to
+	 * @param maxGroups   the maximum number of groups open at once
+	 * @param maxBuffered the maximum number of elements taken from the source but not yet consumed by their group
+	 * @param idleTimeout how long a group stays open without receiving an element
+	 */
+	public BoundedGroupBy(String name, Function<T, K> keySelector, int maxGroups, int maxBuffered,
+						  Duration idleTimeout) {
+		if (maxGroups < 1 || maxBuffered < 1) {
+			throw new IllegalArgumentException("maxGroups and maxBuffered must be at least 1");
+		}
+		this.name = name;
+		this.keySelector = keySelector;
+		this.maxGroups = maxGroups;
+		this.maxBuffered = maxBuffered;
+		this.idleTimeoutNanos = idleTimeout.toNanos();
+		this.sweepInterval = Duration.ofNanos(Math.max(idleTimeoutNanos / 2, Duration.ofMillis(1).toNanos()));
+	}
+
+	/**
+	 * Buffers up to 256 elements, like {@code groupBy}.
+	 */
+	public BoundedGroupBy(String name, Function<T, K> keySelector, int maxGroups, Duration idleTimeout) {
+		this(name, keySelector, maxGroups, Queues.SMALL_BUFFER_SIZE, idleTimeout);
+	}
+
+	/**
+	 * An operator to be used with {@code transform}, processing the elements of every group with the given function,
+	 * which receives the key and the elements of one group.
+	 */
+	public <R> Function<Flux<T>, Flux<R>> process(BiFunction<K, Flux<T>, ? extends Publisher<R>> processor) {
+		return flux -> Flux.<Group>create(opened -> new Router(flux, opened))
+				.flatMap(group -> processor.apply(group.key, group.elements()), maxGroups * 2);
+	}
+
+	public int getGroupCount() {
+		return groups.size();
+	}
+
+	public Map<K, Integer> getBufferedItems() {
+		Map<K, Integer> buffered = new HashMap<>();
+		groups.forEach((key, group) -> buffered.put(key, group.buffered.get()));
+		return buffered;
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * Takes elements from the source and routes them to their groups, and evicts idle groups. Routing and evicting
+	 * are serialized by the router's lock.
+	 */
+	private final class Router extends BaseSubscriber<T> {
+
+		private final FluxSink<Group> opened;
+		private final Disposable sweeps;
+
+		private Router(Flux<T> source, FluxSink<Group> opened) {
+			this.opened = opened;
+			this.sweeps = Flux.interval(sweepInterval).subscribe(tick -> sweep());
+			opened.onDispose(() -> {
+				sweeps.dispose();
+				dispose();
+				closeAll(group -> group.sink.tryEmitComplete());
+			});
+			source.subscribe(this);
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			request(maxBuffered);
+		}
+
+		@Override
+		protected synchronized void hookOnNext(T element) {
+			K key = keySelector.apply(element);
+			Group group = groups.get(key);
+			if (Objects.isNull(group)) {
+				group = open(key);
+			}
+			group.lastRoutedAt = System.nanoTime();
+			group.buffered.incrementAndGet();
+			if (group.sink.tryEmitNext(element).isFailure()) {
+				// the processing of the group cancelled it, so the element goes to a new group
+				groups.remove(key, group);
+				group = open(key);
+				group.buffered.incrementAndGet();
+				group.sink.tryEmitNext(element);
+			}
+		}
+
+		@Override
+		protected void hookOnComplete() {
+			sweeps.dispose();
+			closeAll(group -> group.sink.tryEmitComplete());
+			opened.complete();
+		}
+
+		@Override
+		protected void hookOnError(Throwable error) {
+			sweeps.dispose();
+			closeAll(group -> group.sink.tryEmitError(error));
+			opened.error(error);
+		}
+
+		private Group open(K key) {
+			if (groups.size() >= maxGroups) {
+				Group oldest = null;
+				for (Group candidate : groups.values()) {
+					if (Objects.isNull(oldest) || candidate.lastRoutedAt < oldest.lastRoutedAt) {
+						oldest = candidate;
+					}
+				}
+				evict(oldest, "least recently used");
+			}
+			var group = new Group(key, this);
+			groups.put(key, group);
+			opened.next(group);
+			return group;
+		}
+
+		private synchronized void sweep() {
+			long now = System.nanoTime();
+			for (Group group : List.copyOf(groups.values())) {
+				if (now - group.lastRoutedAt >= idleTimeoutNanos) {
+					evict(group, "idle");
+				}
+			}
+		}
+
+		private void evict(Group group, String reason) {
+			groups.remove(group.key, group);
+			group.sink.tryEmitComplete();
+			evictions.incrementAndGet();
+			log.debug("{} evicted {} group {}", name, reason, group.key);
+		}
+
+		private synchronized void closeAll(Consumer<Group> close) {
+			List<Group> open = List.copyOf(groups.values());
+			groups.clear();
+			open.forEach(close);
+		}
+	}
+
+	/**
+	 * An open group, compared by identity, so that a group opened again for the same key is a new group.
+	 */
+	private final class Group {
+
+		private final K key;
+		private final Router router;
+		private final Sinks.Many<T> sink = Sinks.many().unicast().onBackpressureBuffer();
+		private final AtomicInteger buffered = new AtomicInteger();
+		private long lastRoutedAt;
+
+		private Group(K key, Router router) {
+			this.key = key;
+			this.router = router;
+		}
+
+		/**
+		 * The elements of the group, each of which lets the router take another element from the source once it is
+		 * consumed.
+		 */
+		private Flux<T> elements() {
+			return sink.asFlux()
+					.doOnNext(element -> {
+						buffered.decrementAndGet();
+						router.request(1);
+					})
+					.doOnCancel(() -> {
+						int discarded = buffered.getAndSet(0);
+						if (discarded > 0) {
+							router.request(discarded);
+						}
+					});
+		}
+	}
+}
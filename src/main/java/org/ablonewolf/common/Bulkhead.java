@@ -0,0 +1,84 @@
+package org.ablonewolf.common;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caps the number of concurrent calls to a service, or to one of its endpoints, rejecting calls over the cap with a
+ * {@link BulkheadFullException} instead of queueing them.
+ * <p>
+ * Keeping separate bulkheads per endpoint means that one slow endpoint can hold at most its own share of connections
+ * and event loop time, while calls to the other endpoints keep going through.
+ * <p>
+ * A call holds its slot from subscription until it completes, fails or is cancelled.
+ * <p>
+ * Usage:
+ * Apply with {@code transform(bulkhead.forMono())} or {@code transform(bulkhead.forFlux())}.
+ */
+public class Bulkhead {
+
+	private final String name;
+	private final int maxConcurrentCalls;
+	private final Semaphore permits;
+
+	public Bulkhead(String name, int maxConcurrentCalls) {
+		if (maxConcurrentCalls < 1) {
+			throw new IllegalArgumentException("maxConcurrentCalls must be at least 1, but was " + maxConcurrentCalls);
+		}
+		this.name = name;
+		this.maxConcurrentCalls = maxConcurrentCalls;
+		this.permits = new Semaphore(maxConcurrentCalls);
+	}
+
+	public <T> UnaryOperator<Mono<T>> forMono() {
+		return mono -> Mono.defer(() -> {
+			var slot = acquire();
+			return mono.doFinally(signalType -> slot.release());
+		});
+	}
+
+	public <T> UnaryOperator<Flux<T>> forFlux() {
+		return flux -> Flux.defer(() -> {
+			var slot = acquire();
+			return flux.doFinally(signalType -> slot.release());
+		});
+	}
+
+	public int getConcurrentCalls() {
+		return maxConcurrentCalls - permits.availablePermits();
+	}
+
+	private Slot acquire() {
+		if (!permits.tryAcquire()) {
+			throw new BulkheadFullException(name, maxConcurrentCalls);
+		}
+		return new Slot();
+	}
+
+	public static class BulkheadFullException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public BulkheadFullException(String name, int maxConcurrentCalls) {
+			super("Bulkhead %s is full with %d concurrent calls".formatted(name, maxConcurrentCalls));
+		}
+	}
+
+	/**
+	 * A held slot, released once even if the call both completes and is cancelled.
+	 */
+	private final class Slot {
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private void release() {
+			if (released.compareAndSet(false, true)) {
+				permits.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package org.ablonewolf.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * Stops calling a failing service for a while, failing calls immediately instead of letting each of them wait for
+ * its own timeout.
+ * <p>
+ * States:<br>
+ * - {@link State#CLOSED}: calls go through, and the outcomes of the last {@code slidingWindowSize} calls are kept.
+ * Once at least {@code minimumCalls} outcomes are known and the share of failures reaches
+ * {@code failureRateThreshold}, the breaker opens.<br>
+ * - {@link State#OPEN}: calls fail with a {@link CallNotPermittedException} without being made. After
+ * {@code openDuration}, the breaker becomes half-open.<br>
+ * - {@link State#HALF_OPEN}: up to {@code halfOpenCalls} trial calls go through while others are rejected. If they
+ * all succeed, the breaker closes with an empty window; the first failure opens it again.
+ * <p>
+ * A Mono succeeds when it emits a value or completes empty, a Flux when it completes; any error is a failure. A
+ * cancelled call does not count either way, and outcomes of calls started before the last change of state are
+ * ignored.
+ * <p>
+ * Usage:
+ * Apply with {@code transform(breaker.forMono())} or {@code transform(breaker.forFlux())}. The same breaker should
+ * be shared by all calls to the service it protects.
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED,
+		OPEN,
+		HALF_OPEN
+	}
+
+	private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+	private final String name;
+	private final double failureRateThreshold;
+	private final int minimumCalls;
+	private final long openDurationNanos;
+	private final int halfOpenCalls;
+	private final boolean[] outcomes;
+
+	private State state = State.CLOSED;
+	private long generation = 0;
+	private int recorded = 0;
+	private int next = 0;
+	private int failures = 0;
+	private long openUntil = 0;
+	private int halfOpenStarted = 0;
+	private int halfOpenSucceeded = 0;
+
+	/**
+	 * @param name                 the name used in logs and exceptions
+	 * @param failureRateThreshold the share of failed calls, between 0 and 1, at which the breaker opens
+	 * @param slidingWindowSize    the number of most recent calls the failure rate is computed over
+	 * @param minimumCalls         the number of calls needed before the failure rate is considered
+	 * @param openDuration         how long the breaker stays open before letting trial calls through
+	 * @param halfOpenCalls        the number of trial calls that must succeed for the breaker to close
+	 */
+	public CircuitBreaker(String name, double failureRateThreshold, int slidingWindowSize, int minimumCalls,
+						  Duration openDuration, int halfOpenCalls) {
+		if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+			throw new IllegalArgumentException("failureRateThreshold must be between 0 and 1, but was "
+											   + failureRateThreshold);
+		}
+		if (minimumCalls < 1 || minimumCalls > slidingWindowSize || halfOpenCalls < 1) {
+			throw new IllegalArgumentException("Calls must satisfy 1 <= minimumCalls <= slidingWindowSize and "
+											   + "halfOpenCalls >= 1");
+		}
+		this.name = name;
+		this.failureRateThreshold = failureRateThreshold;
+		this.outcomes = new boolean[slidingWindowSize];
+		this.minimumCalls = minimumCalls;
+		this.openDurationNanos = openDuration.toNanos();
+		this.halfOpenCalls = halfOpenCalls;
+	}
+
+	/**
+	 * Opens at a 50% failure rate over the last 100 calls, once 20 calls were made, for 10 seconds, and closes after 5
+	 * successful trial calls.
+	 */
+	public static CircuitBreaker withDefaults(String name) {
+		return new CircuitBreaker(name, 0.5, 100, 20, Duration.ofSeconds(10), 5);
+	}
+
+	public <T> UnaryOperator<Mono<T>> forMono() {
+		return mono -> Mono.defer(() -> {
+			var call = acquire();
+			return mono
+					.doOnSuccess(value -> call.complete(true))
+					.doOnError(error -> call.complete(false))
+					.doOnCancel(() -> call.complete(null));
+		});
+	}
+
+	public <T> UnaryOperator<Flux<T>> forFlux() {
+		return flux -> Flux.defer(() -> {
+			var call = acquire();
+			return flux
+					.doOnComplete(() -> call.complete(true))
+					.doOnError(error -> call.complete(false))
+					.doOnCancel(() -> call.complete(null));
+		});
+	}
+
+	public synchronized State getState() {
+		if (state == State.OPEN && System.nanoTime() >= openUntil) {
+			transitionTo(State.HALF_OPEN);
+		}
+		return state;
+	}
+
+	private synchronized Call acquire() {
+		State current = getState();
+		if (current == State.OPEN || (current == State.HALF_OPEN && halfOpenStarted >= halfOpenCalls)) {
+			throw new CallNotPermittedException(name, current);
+		}
+		if (current == State.HALF_OPEN) {
+			halfOpenStarted++;
+		}
+		return new Call(generation);
+	}
+
+	/**
+	 * @param succeeded {@code true} for a successful call, {@code false} for a failed one, {@code null} for a
+	 *                  cancelled one
+	 */
+	private synchronized void record(long callGeneration, Boolean succeeded) {
+		if (callGeneration != generation) {
+			return;
+		}
+		if (state == State.HALF_OPEN) {
+			if (Boolean.FALSE.equals(succeeded)) {
+				transitionTo(State.OPEN);
+			} else if (Boolean.TRUE.equals(succeeded) && ++halfOpenSucceeded >= halfOpenCalls) {
+				transitionTo(State.CLOSED);
+			} else if (Objects.isNull(succeeded)) {
+				halfOpenStarted--;
+			}
+			return;
+		}
+		if (Objects.isNull(succeeded)) {
+			return;
+		}
+
+		if (recorded == outcomes.length && !outcomes[next]) {
+			failures--;
+		}
+		outcomes[next] = succeeded;
+		next = (next + 1) % outcomes.length;
+		recorded = Math.min(recorded + 1, outcomes.length);
+		if (!succeeded) {
+			failures++;
+		}
+		if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+			log.warn("Circuit breaker {} saw {} failures in the last {} calls", name, failures, recorded);
+			transitionTo(State.OPEN);
+		}
+	}
+
+	private void transitionTo(State newState) {
+		log.info("Circuit breaker {} changed from {} to {}", name, state, newState);
+		state = newState;
+		generation++;
+		recorded = 0;
+		next = 0;
+		failures = 0;
+		halfOpenStarted = 0;
+		halfOpenSucceeded = 0;
+		if (newState == State.OPEN) {
+			openUntil = System.nanoTime() + openDurationNanos;
+		}
+	}
+
+	public static class CallNotPermittedException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public CallNotPermittedException(String name, State state) {
+			super("Circuit breaker %s is %s and does not permit further calls".formatted(name, state));
+		}
+	}
+
+	/**
+	 * A permitted call, whose outcome is recorded once, whichever of its signals comes first.
+	 */
+	private final class Call {
+
+		private final long generation;
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		private Call(long generation) {
+			this.generation = generation;
+		}
+
+		private void complete(Boolean succeeded) {
+			if (completed.compareAndSet(false, true)) {
+				record(generation, succeeded);
+			}
+		}
+	}
+}
@@ -0,0 +1,316 @@
+package org.ablonewolf.common;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Describes how file contents are compressed on their way to disk and decompressed on their way back, using the
+ * gzip and deflate (zlib) formats of the JDK.
+ * <p>
+ * Compression can be applied either to blocking streams, through {@link #compress(OutputStream)} and
+ * {@link #decompress(InputStream)}, or to reactive streams of byte chunks, through {@link #compress(Flux)} and
+ * {@link #decompress(Flux)}. The reactive variants run the deflater on a dedicated {@code compression} scheduler, so
+ * compressing one chunk overlaps with producing the next one and with writing the previous one.
+ * <p>
+ * Methods:<br>
+ * - {@link #NONE}: leaves contents untouched.<br>
+ * - {@link #gzip(int)}, {@link #deflate(int)}: compress with the given level, from 0 (none) to 9 (best), or
+ * {@link Deflater#DEFAULT_COMPRESSION}.<br>
+ * - {@link #gzip()}, {@link #deflate()}: compress with the default level.
+ *
+ * @param format the compression format
+ * @param level  the deflater level, ignored by {@link Format#NONE}
+ */
+public record Compression(Format format,
+						  int level) {
+
+	public enum Format {
+		NONE,
+		GZIP,
+		DEFLATE
+	}
+
+	public static final Compression NONE = new Compression(Format.NONE, Deflater.DEFAULT_COMPRESSION);
+
+	private static final Scheduler COMPRESSION_SCHEDULER =
+			Schedulers.newParallel("compression", Runtime.getRuntime().availableProcessors(), true);
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int GZIP_MAGIC = 0x8b1f;
+	private static final int GZIP_HEADER_SIZE = 10;
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+
+	public Compression {
+		if (level != Deflater.DEFAULT_COMPRESSION
+				&& (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+			throw new IllegalArgumentException("Compression level must be between 0 and 9, but was " + level);
+		}
+	}
+
+	public static Compression gzip() {
+		return gzip(Deflater.DEFAULT_COMPRESSION);
+	}
+
+	public static Compression gzip(int level) {
+		return new Compression(Format.GZIP, level);
+	}
+
+	public static Compression deflate() {
+		return deflate(Deflater.DEFAULT_COMPRESSION);
+	}
+
+	public static Compression deflate(int level) {
+		return new Compression(Format.DEFLATE, level);
+	}
+
+	public OutputStream compress(OutputStream output) throws IOException {
+		return switch (format) {
+			case NONE -> output;
+			case GZIP -> new GZIPOutputStream(output, BUFFER_SIZE) {
+				{
+					def.setLevel(level);
+				}
+			};
+			case DEFLATE -> new DeflaterOutputStream(output, new Deflater(level), BUFFER_SIZE) {
+				@Override
+				public void close() throws IOException {
+					super.close();
+					def.end();
+				}
+			};
+		};
+	}
+
+	public InputStream decompress(InputStream input) throws IOException {
+		return switch (format) {
+			case NONE -> input;
+			case GZIP -> new GZIPInputStream(input, BUFFER_SIZE);
+			case DEFLATE -> new InflaterInputStream(input, new Inflater(), BUFFER_SIZE) {
+				@Override
+				public void close() throws IOException {
+					super.close();
+					inf.end();
+				}
+			};
+		};
+	}
+
+	/**
+	 * Compresses a stream of byte chunks on the {@code compression} scheduler. Output chunks do not line up with input
+	 * chunks; chunks for which the deflater produced no output yet are skipped, and the remaining output is emitted
+	 * once the input completes.
+	 *
+	 * @param content the uncompressed chunks
+	 * @return a Flux emitting the compressed chunks
+	 */
+	public Flux<ByteBuffer> compress(Flux<ByteBuffer> content) {
+		return compress(content, false);
+	}
+
+	/**
+	 * Compresses a stream of byte chunks like {@link #compress(Flux)}, optionally ending the output of every chunk
+	 * with a sync flush. A sync-flushed chunk is emitted in full, so the output received so far can be decompressed up
+	 * to the end of the last input chunk, at the cost of a slightly lower compression ratio.
+	 *
+	 * @param content   the uncompressed chunks
+	 * @param syncFlush whether to flush the deflater after every chunk
+	 * @return a Flux emitting the compressed chunks
+	 */
+	public Flux<ByteBuffer> compress(Flux<ByteBuffer> content, boolean syncFlush) {
+		if (format == Format.NONE) {
+			return content;
+		}
+		return Flux.defer(() -> {
+			var compressor = new ChunkCompressor();
+			Flux<ByteBuffer> body = content
+					.publishOn(COMPRESSION_SCHEDULER)
+					.map(chunk -> compressor.compress(chunk, syncFlush))
+					.concatWith(Mono.fromCallable(compressor::finish))
+					.filter(ByteBuffer::hasRemaining)
+					.doFinally(signalType -> compressor.end());
+			return format == Format.GZIP ? body.startWith(gzipHeader()) : body;
+		});
+	}
+
+	/**
+	 * Decompresses a stream of compressed byte chunks on the {@code compression} scheduler. Anything following the
+	 * end of the compressed data, such as the gzip trailer, is ignored.
+	 *
+	 * @param content the compressed chunks
+	 * @return a Flux emitting the decompressed chunks
+	 */
+	public Flux<ByteBuffer> decompress(Flux<ByteBuffer> content) {
+		if (format == Format.NONE) {
+			return content;
+		}
+		return Flux.defer(() -> {
+			var decompressor = new ChunkDecompressor();
+			return content
+					.publishOn(COMPRESSION_SCHEDULER)
+					.<ByteBuffer>handle((chunk, sink) -> {
+						try {
+							sink.next(decompressor.decompress(chunk));
+						} catch (IOException e) {
+							sink.error(e);
+						}
+					})
+					.filter(ByteBuffer::hasRemaining)
+					.doFinally(signalType -> decompressor.end());
+		});
+	}
+
+	private ByteBuffer gzipHeader() {
+		byte[] header = {(byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+		return ByteBuffer.wrap(header);
+	}
+
+	/**
+	 * Returns the size of the gzip header at the start of the given bytes, or -1 if more bytes are needed to tell.
+	 */
+	private static int gzipHeaderLength(byte[] bytes, int length) throws IOException {
+		if (length < GZIP_HEADER_SIZE) {
+			return -1;
+		}
+		if (((bytes[0] & 0xff) | (bytes[1] & 0xff) << 8) != GZIP_MAGIC || bytes[2] != Deflater.DEFLATED) {
+			throw new IOException("Not in gzip format");
+		}
+		int flags = bytes[3];
+		int position = GZIP_HEADER_SIZE;
+		if ((flags & FEXTRA) != 0) {
+			if (length < position + 2) {
+				return -1;
+			}
+			position += 2 + ((bytes[position] & 0xff) | (bytes[position + 1] & 0xff) << 8);
+		}
+		for (int flag : new int[]{FNAME, FCOMMENT}) {
+			if ((flags & flag) != 0) {
+				do {
+					if (position >= length) {
+						return -1;
+					}
+				} while (bytes[position++] != 0);
+			}
+		}
+		if ((flags & FHCRC) != 0) {
+			position += 2;
+		}
+		return position <= length ? position : -1;
+	}
+
+	private final class ChunkCompressor {
+
+		private final Deflater deflater = new Deflater(level, format == Format.GZIP);
+		private final CRC32 crc = new CRC32();
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private final ByteArrayOutputStream output = new ByteArrayOutputStream(BUFFER_SIZE);
+
+		private ByteBuffer compress(ByteBuffer chunk, boolean syncFlush) {
+			crc.update(chunk.duplicate());
+			deflater.setInput(chunk);
+			if (syncFlush) {
+				// a sync flush fills the whole buffer as long as there is more output to come
+				int deflated;
+				do {
+					deflated = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					output.write(buffer, 0, deflated);
+				} while (deflated == buffer.length);
+			} else {
+				while (!deflater.needsInput()) {
+					output.write(buffer, 0, deflater.deflate(buffer));
+				}
+			}
+			return drain();
+		}
+
+		private ByteBuffer finish() {
+			deflater.finish();
+			while (!deflater.finished()) {
+				output.write(buffer, 0, deflater.deflate(buffer));
+			}
+			if (format == Format.GZIP) {
+				writeIntLittleEndian((int) crc.getValue());
+				writeIntLittleEndian((int) deflater.getBytesRead());
+			}
+			return drain();
+		}
+
+		private void end() {
+			deflater.end();
+		}
+
+		private void writeIntLittleEndian(int value) {
+			for (int i = 0; i < 4; i++) {
+				output.write(value >>> (8 * i));
+			}
+		}
+
+		private ByteBuffer drain() {
+			ByteBuffer compressed = ByteBuffer.wrap(output.toByteArray());
+			output.reset();
+			return compressed;
+		}
+	}
+
+	private final class ChunkDecompressor {
+
+		private final Inflater inflater = new Inflater(format == Format.GZIP);
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private final ByteArrayOutputStream output = new ByteArrayOutputStream(BUFFER_SIZE);
+		private ByteArrayOutputStream header = format == Format.GZIP ? new ByteArrayOutputStream() : null;
+
+		private ByteBuffer decompress(ByteBuffer chunk) throws IOException {
+			if (Objects.nonNull(header)) {
+				byte[] bytes = new byte[chunk.remaining()];
+				chunk.get(bytes);
+				header.writeBytes(bytes);
+				byte[] received = header.toByteArray();
+				int headerLength = gzipHeaderLength(received, received.length);
+				if (headerLength < 0) {
+					return ByteBuffer.allocate(0);
+				}
+				header = null;
+				chunk = ByteBuffer.wrap(received, headerLength, received.length - headerLength);
+			}
+
+			inflater.setInput(chunk);
+			try {
+				while (!inflater.needsInput() && !inflater.finished()) {
+					int inflated = inflater.inflate(buffer);
+					if (inflated == 0 && inflater.needsDictionary()) {
+						throw new IOException("Compressed data requires a preset dictionary");
+					}
+					output.write(buffer, 0, inflated);
+				}
+			} catch (DataFormatException e) {
+				throw new IOException("Invalid compressed data", e);
+			}
+
+			ByteBuffer decompressed = ByteBuffer.wrap(output.toByteArray());
+			output.reset();
+			return decompressed;
+		}
+
+		private void end() {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package org.ablonewolf.common;
+
+import java.time.Duration;
+
+/**
+ * Describes when a slow request is hedged, i.e. duplicated, so that a single straggler does not dictate the latency
+ * of a call.
+ * <p>
+ * Settings:<br>
+ * - {@code percentile}: the percentile of recent latencies after which a hedge is sent, e.g. {@code 0.95} to hedge
+ * the slowest 5% of requests.<br>
+ * - {@code maxHedgeRatio}: the largest share of requests that may be hedged, e.g. {@code 0.1} for at most one hedge
+ * per ten requests, so that hedging cannot double the load on a service that is slow for everyone.<br>
+ * - {@code minDelay}: the shortest delay before a hedge is sent, however fast recent requests were.
+ * <p>
+ * A policy only holds settings; the latencies and the hedge budget are tracked per endpoint by the
+ * {@link RequestHedger} returned from {@link #newHedger()}.
+ *
+ * @param percentile    the percentile of recent latencies used as the hedging delay, between 0 and 1
+ * @param maxHedgeRatio the largest share of requests that may be hedged, between 0 and 1
+ * @param minDelay      the shortest delay before a hedge is sent
+ */
+public record HedgingPolicy(double percentile,
+							double maxHedgeRatio,
+							Duration minDelay) {
+
+	public HedgingPolicy {
+		if (percentile <= 0 || percentile >= 1) {
+			throw new IllegalArgumentException("percentile must be between 0 and 1, but was " + percentile);
+		}
+		if (maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+			throw new IllegalArgumentException("maxHedgeRatio must be between 0 and 1, but was " + maxHedgeRatio);
+		}
+	}
+
+	/**
+	 * Hedges requests slower than the observed p95, for at most 5% of requests, and never before 5 ms.
+	 */
+	public static HedgingPolicy p95() {
+		return new HedgingPolicy(0.95, 0.05, Duration.ofMillis(5));
+	}
+
+	public RequestHedger newHedger() {
+		return new RequestHedger(this);
+	}
+}
@@ -0,0 +1,61 @@
+package org.ablonewolf.common;
+
+import java.time.Duration;
+
+/**
+ * Sizing and protocol settings for the HTTP clients built by {@link AbstractHttpClient}.
+ * <p>
+ * {@link #fromSystemProperties()} reads every setting from a system property prefixed with
+ * {@value #PROPERTY_PREFIX}, falling back to the defaults below, so the same build can be tuned per environment,
+ * e.g. {@code -Dexternal-service.max-connections=1000}.
+ * <p>
+ * Settings:<br>
+ * - {@code base-url}: the base URL of the external service, {@code http://localhost:7070/} by default.<br>
+ * - {@code event-loop-threads}: the number of shared event loop threads, one per core by default.<br>
+ * - {@code max-connections}: the maximum number of pooled connections, 500 by default.<br>
+ * - {@code pending-acquire-max-count}: how many requests may wait for a connection, 1000 by default.<br>
+ * - {@code pending-acquire-timeout}: how long, in ms, a request waits for a connection, 5000 by default.<br>
+ * - {@code max-idle-time}: how long, in ms, a connection may stay idle before it is closed, 30000 by default.<br>
+ * - {@code eviction-interval}: how often, in ms, idle connections are evicted in the background, 10000 by default.
+ * <br>
+ * - {@code http2}: whether to offer HTTP/2 over cleartext (h2c), multiplexing requests over fewer connections,
+ * false by default.<br>
+ * - {@code max-concurrent-streams}: the maximum number of streams the client multiplexes over one HTTP/2 connection,
+ * 100 by default.
+ */
+public record HttpClientConfig(String baseUrl,
+							   int eventLoopThreads,
+							   int maxConnections,
+							   int pendingAcquireMaxCount,
+							   Duration pendingAcquireTimeout,
+							   Duration maxIdleTime,
+							   Duration evictionInterval,
+							   boolean http2,
+							   long maxConcurrentStreams) {
+
+	public static final String PROPERTY_PREFIX = "external-service.";
+
+	public static HttpClientConfig fromSystemProperties() {
+		return new HttpClientConfig(
+				property("base-url", "http://localhost:7070/"),
+				Integer.parseInt(property("event-loop-threads",
+										  String.valueOf(Runtime.getRuntime().availableProcessors()))),
+				Integer.parseInt(property("max-connections", "500")),
+				Integer.parseInt(property("pending-acquire-max-count", "1000")),
+				Duration.ofMillis(Long.parseLong(property("pending-acquire-timeout", "5000"))),
+				Duration.ofMillis(Long.parseLong(property("max-idle-time", "30000"))),
+				Duration.ofMillis(Long.parseLong(property("eviction-interval", "10000"))),
+				Boolean.parseBoolean(property("http2", "false")),
+				Long.parseLong(property("max-concurrent-streams", "100"))
+		);
+	}
+
+	public HttpClientConfig withBaseUrl(String baseUrl) {
+		return new HttpClientConfig(baseUrl, eventLoopThreads, maxConnections, pendingAcquireMaxCount,
+									pendingAcquireTimeout, maxIdleTime, evictionInterval, http2, maxConcurrentStreams);
+	}
+
+	private static String property(String name, String defaultValue) {
+		return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+	}
+}
@@ -0,0 +1,131 @@
+package org.ablonewolf.common;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Collects individual lookups made concurrently by many callers into batches, and resolves every batch with a single
+ * call to a bulk loader.
+ * <p>
+ * Functionality:<br>
+ * - Every {@link #load(Object)} is queued through a {@link Sinks.Many}, which callers on any thread can emit into.<br>
+ * - The queue is cut into batches with {@link reactor.core.publisher.Flux#bufferTimeout(int, Duration, boolean)}, so
+ * a batch is sent as soon as it holds {@code maxBatchSize} keys or the oldest key has waited for {@code maxWait}. The
+ * buffer respects backpressure, so a batch cut while {@code maxConcurrentBatches} batches are in flight waits for one
+ * of them instead of overflowing.<br>
+ * - Each key appears only once in a batch, even if several callers asked for it.<br>
+ * - The bulk loader returns a map from key to value, which is used to complete each caller's {@link Mono}; keys
+ * missing from the map complete empty, and a failed batch, including a loader that throws, fails every caller in
+ * it.<br>
+ * - At most {@code maxConcurrentBatches} batches are in flight at a time.
+ * <p>
+ * The batcher stays subscribed to its queue until it is disposed. Disposing it, or an unexpected error in the queue,
+ * fails every lookup that has not completed yet and every lookup made afterward, so no caller waits forever.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of loaded values
+ */
+public class MicroBatcher<K, V> implements Disposable {
+
+	private final Sinks.Many<Request<K, V>> requests = Sinks.many().unicast().onBackpressureBuffer();
+	private final Set<Request<K, V>> pending = ConcurrentHashMap.newKeySet();
+	private final Function<List<K>, Mono<Map<K, V>>> batchLoader;
+	private final Disposable subscription;
+	private volatile Throwable terminated;
+
+	public MicroBatcher(int maxBatchSize, Duration maxWait, int maxConcurrentBatches,
+						Function<List<K>, Mono<Map<K, V>>> batchLoader) {
+		this.batchLoader = batchLoader;
+		this.subscription = requests.asFlux()
+				.bufferTimeout(maxBatchSize, maxWait, true)
+				.flatMap(this::dispatch, maxConcurrentBatches)
+				.subscribe(null, this::terminate);
+	}
+
+	public Mono<V> load(K key) {
+		return Mono.create(sink -> {
+			var request = new Request<>(key, sink);
+			pending.add(request);
+			sink.onDispose(() -> pending.remove(request));
+			// checked after registering, so that a concurrent termination either sees the request or is seen here
+			if (Objects.nonNull(terminated)) {
+				sink.error(terminated);
+				return;
+			}
+
+			Sinks.EmitResult result;
+			do {
+				result = requests.tryEmitNext(request);
+			} while (Objects.equals(Sinks.EmitResult.FAIL_NON_SERIALIZED, result));
+			if (result.isFailure()) {
+				sink.error(new IllegalStateException("Batcher cannot accept lookups: " + result));
+			}
+		});
+	}
+
+	/**
+	 * Stops batching and fails all lookups that have not completed yet with a {@link CancellationException}.
+	 */
+	@Override
+	public void dispose() {
+		terminated = new CancellationException("Batcher was disposed");
+		subscription.dispose();
+		failPending(terminated);
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return subscription.isDisposed();
+	}
+
+	private Mono<Void> dispatch(List<Request<K, V>> batch) {
+		List<K> keys = batch.stream()
+				.map(Request::key)
+				.distinct()
+				.toList();
+
+		return Mono.defer(() -> batchLoader.apply(keys))
+				.defaultIfEmpty(Map.of())
+				.doOnNext(values -> batch.forEach(request -> {
+					V value = values.get(request.key());
+					if (Objects.isNull(value)) {
+						request.sink().success();
+					} else {
+						request.sink().success(value);
+					}
+				}))
+				.doOnError(error -> batch.forEach(request -> request.sink().error(error)))
+				.onErrorResume(error -> Mono.empty())
+				.then();
+	}
+
+	private void terminate(Throwable error) {
+		terminated = error;
+		failPending(error);
+	}
+
+	private void failPending(Throwable error) {
+		for (Request<K, V> request : pending) {
+			request.sink().error(error);
+		}
+	}
+
+	/**
+	 * A lookup waiting for its batch. Every caller has its own sink, so requests of callers looking up the same key
+	 * are distinct.
+	 */
+	private record Request<K, V>(K key,
+								 MonoSink<V> sink) {
+	}
+}
@@ -0,0 +1,193 @@
+package org.ablonewolf.common;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A size-bounded, time-to-live cache for values that are loaded asynchronously, such as responses of remote calls.
+ * <p>
+ * Functionality:<br>
+ * - Request coalescing: concurrent lookups of a key that is being loaded share the same load, so the loader is called
+ * once per key no matter how many subscribers are waiting.<br>
+ * - Expiry: a value older than the time-to-live is no longer served, and the next lookup loads it again.<br>
+ * - Refresh-ahead: a value older than the refresh interval, but still within its time-to-live, is served immediately
+ * while a single background load replaces it, so readers of hot keys never wait on the loader. A refresh that fails
+ * or completes empty keeps the current value, and the next lookup tries again.<br>
+ * - Size bound: once more than the maximum number of keys are cached, the least recently used keys are evicted in one
+ * pass, down to 90% of the maximum, so eviction is rare and its cost is spread over many insertions.
+ * <p>
+ * Entries are kept in a {@link ConcurrentHashMap}, so a lookup of a cached key takes no lock; only replacing an
+ * absent or expired entry goes through an atomic {@link ConcurrentHashMap#compute}.
+ * <p>
+ * Failed loads are not cached, so the next lookup tries again. Cancelling a lookup does not cancel the shared load,
+ * as other subscribers may still be waiting for it.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of cached values
+ */
+public class ReactiveCache<K, V> {
+
+	private final Function<K, Mono<V>> loader;
+	private final int maxSize;
+	private final int evictionTarget;
+	private final long timeToLiveNanos;
+	private final long refreshAfterNanos;
+	private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	private final AtomicBoolean evicting = new AtomicBoolean();
+
+	/**
+	 * @param maxSize      the maximum number of keys kept in the cache
+	 * @param timeToLive   how long a value may be served after it was loaded
+	 * @param refreshAfter how long after loading a value is refreshed in the background, shorter than the time-to-live
+	 * @param loader       loads the value of a key
+	 */
+	public ReactiveCache(int maxSize, Duration timeToLive, Duration refreshAfter, Function<K, Mono<V>> loader) {
+		if (refreshAfter.compareTo(timeToLive) > 0) {
+			throw new IllegalArgumentException("refreshAfter must not be longer than timeToLive");
+		}
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be at least 1, but was " + maxSize);
+		}
+		this.loader = loader;
+		this.maxSize = maxSize;
+		this.evictionTarget = maxSize - maxSize / 10;
+		this.timeToLiveNanos = timeToLive.toNanos();
+		this.refreshAfterNanos = refreshAfter.toNanos();
+	}
+
+	public Mono<V> get(K key) {
+		return Mono.defer(() -> Mono.fromFuture(lookup(key).value, true));
+	}
+
+	public void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private Entry<V> lookup(K key) {
+		long now = System.nanoTime();
+		Entry<V> entry = entries.get(key);
+
+		if (isUsable(entry, now)) {
+			if (entry.isLoaded() && now - entry.loadedAt >= refreshAfterNanos
+				&& entry.refreshing.compareAndSet(false, true)) {
+				refreshInBackground(key, entry);
+			}
+			entry.lastAccessedAt = now;
+			return entry;
+		}
+
+		var created = new Entry<V>(new CompletableFuture<>());
+		created.lastAccessedAt = now;
+		Entry<V> current = entries.compute(key, (k, existing) -> isUsable(existing, now) ? existing : created);
+		if (current == created) {
+			load(key, created);
+			evictIfFull();
+		}
+		return current;
+	}
+
+	/**
+	 * Whether the entry is being loaded, or holds a value within its time-to-live.
+	 */
+	private boolean isUsable(Entry<V> entry, long now) {
+		if (Objects.isNull(entry)) {
+			return false;
+		}
+		if (!entry.value.isDone()) {
+			return true;
+		}
+		return entry.isLoaded() && now - entry.loadedAt < timeToLiveNanos;
+	}
+
+	private void load(K key, Entry<V> entry) {
+		loader.apply(key).subscribe(
+				value -> {
+					entry.loadedAt = System.nanoTime();
+					entry.value.complete(value);
+				},
+				error -> {
+					entries.remove(key, entry);
+					entry.value.completeExceptionally(error);
+				},
+				() -> {
+					if (!entry.value.isDone()) {
+						entries.remove(key, entry);
+						entry.value.complete(null);
+					}
+				});
+	}
+
+	private void refreshInBackground(K key, Entry<V> stale) {
+		loader.apply(key)
+				.doFinally(signalType -> stale.refreshing.set(false))
+				.subscribe(
+						value -> {
+							var refreshed = new Entry<V>(CompletableFuture.completedFuture(value));
+							refreshed.loadedAt = System.nanoTime();
+							refreshed.lastAccessedAt = stale.lastAccessedAt;
+							entries.replace(key, stale, refreshed);
+						},
+						error -> {
+							// the stale value is kept until it expires, and the next lookup refreshes again
+						});
+	}
+
+	/**
+	 * Evicts the least recently used entries once the cache holds more than its maximum size. Only one caller evicts
+	 * at a time; the others go on without waiting.
+	 */
+	private void evictIfFull() {
+		if (entries.size() <= maxSize || !evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			int excess = entries.size() - evictionTarget;
+			if (excess <= 0) {
+				return;
+			}
+			// access times keep changing, so they are copied before sorting
+			List<Access<K, V>> accesses = entries.entrySet().stream()
+					.map(entry -> new Access<>(entry.getKey(), entry.getValue(), entry.getValue().lastAccessedAt))
+					.sorted(Comparator.comparingLong(Access::accessedAt))
+					.limit(excess)
+					.toList();
+			accesses.forEach(access -> entries.remove(access.key(), access.entry()));
+		} finally {
+			evicting.set(false);
+		}
+	}
+
+	private record Access<K, V>(K key,
+								Entry<V> entry,
+								long accessedAt) {
+	}
+
+	private static final class Entry<V> {
+
+		private final CompletableFuture<V> value;
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+		private volatile long loadedAt;
+		private volatile long lastAccessedAt;
+
+		private Entry(CompletableFuture<V> value) {
+			this.value = value;
+		}
+
+		private boolean isLoaded() {
+			return value.isDone() && !value.isCompletedExceptionally();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package org.ablonewolf.common;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second copy of a request once the first one has been outstanding for longer than a
+ * {@link HedgingPolicy}'s percentile of recent latencies, and takes whichever answers first.
+ * <p>
+ * Functionality:<br>
+ * - The latencies of the last {@value #SAMPLE_SIZE} successful calls are kept in a ring buffer, and the hedging
+ * delay is recomputed from them every {@value #RECOMPUTE_INTERVAL} calls rather than on every call. A latency is
+ * measured from the start of the call to the first value of either copy, so a call won by its hedge counts with at
+ * least the hedging delay, and the slow requests that were cancelled still weigh on the percentile instead of hedges
+ * firing ever earlier.<br>
+ * - No request is hedged until {@value #MIN_SAMPLES} latencies have been observed.<br>
+ * - Every request earns {@code maxHedgeRatio} of a hedge and every hedge spends one, so hedges stay within that share
+ * of the traffic even when the service slows down as a whole.<br>
+ * - The first copy to emit a value wins and the other one is cancelled. A failed hedge is ignored in favour of the
+ * original request, while a failed original request fails the call.
+ * <p>
+ * A hedger tracks one latency distribution, so endpoints with different latencies should use separate hedgers.
+ */
+public class RequestHedger {
+
+	private static final int SAMPLE_SIZE = 1000;
+	private static final int RECOMPUTE_INTERVAL = 100;
+	private static final int MIN_SAMPLES = 20;
+	private static final double MAX_BUDGET = 10;
+
+	private final HedgingPolicy policy;
+	private final long[] latencies = new long[SAMPLE_SIZE];
+	private int samples = 0;
+	private int next = 0;
+	private double budget = 0;
+	private Duration delay;
+
+	RequestHedger(HedgingPolicy policy) {
+		this.policy = policy;
+	}
+
+	/**
+	 * Runs the request produced by the supplier, subscribing to the supplier again for a hedge if the first request
+	 * is slow.
+	 *
+	 * @param request supplies a fresh copy of the request on every call
+	 * @return a Mono emitting the first value of either copy
+	 */
+	public <T> Mono<T> hedge(Supplier<Mono<T>> request) {
+		return Mono.defer(() -> {
+			long startedAt = now();
+			Duration hedgeDelay = earnBudget();
+			Mono<T> primary = request.get();
+			if (Objects.isNull(hedgeDelay)) {
+				return primary.doOnNext(value -> record(now() - startedAt));
+			}
+
+			Mono<T> hedged = Mono.delay(hedgeDelay)
+					.filter(tick -> spendBudget())
+					.flatMap(tick -> request.get())
+					.onErrorResume(e -> Mono.empty())
+					.switchIfEmpty(Mono.never());
+			return Mono.firstWithSignal(primary, hedged)
+					.doOnNext(value -> record(now() - startedAt));
+		});
+	}
+
+	/**
+	 * @return the current hedging delay, or {@code null} while too few latencies have been observed
+	 */
+	public synchronized Duration getDelay() {
+		return delay;
+	}
+
+	/**
+	 * Reads the clock of the scheduler hedges are delayed on, so that latencies and delays share one time source.
+	 */
+	private static long now() {
+		return Schedulers.parallel().now(TimeUnit.NANOSECONDS);
+	}
+
+	private synchronized Duration earnBudget() {
+		budget = Math.min(MAX_BUDGET, budget + policy.maxHedgeRatio());
+		return delay;
+	}
+
+	private synchronized boolean spendBudget() {
+		if (budget < 1) {
+			return false;
+		}
+		budget--;
+		return true;
+	}
+
+	private synchronized void record(long latencyNanos) {
+		latencies[next] = latencyNanos;
+		next = (next + 1) % SAMPLE_SIZE;
+		samples++;
+		if (samples >= MIN_SAMPLES && (Objects.isNull(delay) || samples % RECOMPUTE_INTERVAL == 0)) {
+			long[] sorted = Arrays.copyOf(latencies, Math.min(samples, SAMPLE_SIZE));
+			Arrays.sort(sorted);
+			long percentile = sorted[(int) Math.ceil(policy.percentile() * sorted.length) - 1];
+			Duration observed = Duration.ofNanos(percentile);
+			delay = observed.compareTo(policy.minDelay()) > 0 ? observed : policy.minDelay();
+		}
+	}
+}
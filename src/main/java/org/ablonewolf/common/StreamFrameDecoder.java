@@ -0,0 +1,234 @@
+package org.ablonewolf.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ByteProcessor;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Splits a streamed HTTP response body into messages, independently of how the body happens to be chunked on the
+ * network, so that a message split across two chunks, or several messages within one chunk, are still seen as
+ * separate and complete messages.
+ * <p>
+ * Framings:<br>
+ * - {@link Framing#LINES}: one message per line, as in plain text or NDJSON streams. {@code \n} and {@code \r\n}
+ * terminate a line, and a trailing line without a terminator is still a message. Empty lines, such as those sent to
+ * keep a connection alive, are not messages.<br>
+ * - {@link Framing#SERVER_SENT_EVENTS}: one message per {@code text/event-stream} event, made of its {@code data}
+ * lines joined with {@code \n}. Comments and the other fields are ignored, as are events without data.
+ * <p>
+ * Messages are handed to a mapper as {@link ByteBuf} views, so turning a message into its final value, such as a
+ * number, needs no intermediate String. A message that lies entirely within one network chunk is a slice of that
+ * chunk; only the bytes of a message that spans chunks are copied, into a buffer reused for the whole response. The
+ * views are only valid during the call to the mapper.
+ */
+public final class StreamFrameDecoder {
+
+	public enum Framing {
+		LINES,
+		SERVER_SENT_EVENTS;
+
+		public static Framing forContentType(String contentType) {
+			return Objects.nonNull(contentType) && contentType.startsWith("text/event-stream")
+					? SERVER_SENT_EVENTS
+					: LINES;
+		}
+	}
+
+	public static final int DEFAULT_MAX_FRAME_LENGTH = 64 * 1024;
+
+	private static final ByteBuf DATA_FIELD = Unpooled.wrappedBuffer(new byte[]{'d', 'a', 't', 'a'});
+
+	private StreamFrameDecoder() {
+	}
+
+	/**
+	 * Decodes the chunks of a response body into messages. Chunks are decoded as they arrive, so buffers that are
+	 * released once consumed, such as those of a Reactor Netty response, can be passed as they are.
+	 *
+	 * @param content        the chunks of the response body
+	 * @param framing        how messages are delimited
+	 * @param maxFrameLength the longest message accepted before failing with a {@link TooLongFrameException}
+	 * @param mapper         converts a message to its value, without keeping a reference to the given buffer
+	 * @return a Flux emitting the value of every message
+	 */
+	public static <T> Flux<T> decode(Flux<ByteBuf> content, Framing framing, int maxFrameLength,
+									 Function<ByteBuf, T> mapper) {
+		return Flux.defer(() -> {
+			var decoder = new Decoder<>(framing, maxFrameLength, mapper);
+			return content
+					.map(decoder::decode)
+					.concatWith(Flux.defer(() -> Flux.just(decoder.finish())))
+					.flatMapIterable(values -> values);
+		});
+	}
+
+	public static <T> Flux<T> decode(Flux<ByteBuf> content, Framing framing, Function<ByteBuf, T> mapper) {
+		return decode(content, framing, DEFAULT_MAX_FRAME_LENGTH, mapper);
+	}
+
+	/**
+	 * Parses a message holding a decimal integer, ignoring surrounding whitespace, without creating a String.
+	 *
+	 * @throws NumberFormatException if the message is not a decimal integer within the range of an int
+	 */
+	public static int parseInt(ByteBuf message) {
+		int from = message.readerIndex();
+		int to = message.writerIndex();
+		while (from < to && Character.isWhitespace(message.getByte(from))) {
+			from++;
+		}
+		while (to > from && Character.isWhitespace(message.getByte(to - 1))) {
+			to--;
+		}
+
+		boolean negative = from < to && message.getByte(from) == '-';
+		int position = negative || (from < to && message.getByte(from) == '+') ? from + 1 : from;
+		if (position >= to) {
+			throw notAnInt(message);
+		}
+
+		long value = 0;
+		for (; position < to; position++) {
+			int digit = message.getByte(position) - '0';
+			if (digit < 0 || digit > 9 || (value = value * 10 + digit) > (long) Integer.MAX_VALUE + 1) {
+				throw notAnInt(message);
+			}
+		}
+		if (!negative && value > Integer.MAX_VALUE) {
+			throw notAnInt(message);
+		}
+		return (int) (negative ? -value : value);
+	}
+
+	private static NumberFormatException notAnInt(ByteBuf message) {
+		return new NumberFormatException("Not an int: \"%s\"".formatted(message.toString(StandardCharsets.UTF_8)));
+	}
+
+	public static class TooLongFrameException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public TooLongFrameException(int maxFrameLength) {
+			super("Message exceeds the maximum length of %d bytes".formatted(maxFrameLength));
+		}
+	}
+
+	/**
+	 * Keeps the decoding state of one response: the start of a line carried over from the previous chunk, and for
+	 * server-sent events the data of the event being read. Both are plain heap buffers, left to the garbage collector
+	 * rather than released, so that a cancellation racing with a chunk being decoded cannot free them while in use.
+	 */
+	private static final class Decoder<T> {
+
+		private final Framing framing;
+		private final int maxFrameLength;
+		private final Function<ByteBuf, T> mapper;
+		private final ByteBuf partialLine = Unpooled.buffer(256);
+		private final ByteBuf eventData = Unpooled.buffer(256);
+		private boolean eventHasData = false;
+
+		private Decoder(Framing framing, int maxFrameLength, Function<ByteBuf, T> mapper) {
+			this.framing = framing;
+			this.maxFrameLength = maxFrameLength;
+			this.mapper = mapper;
+		}
+
+		private List<T> decode(ByteBuf chunk) {
+			List<T> values = new ArrayList<>();
+			int position = chunk.readerIndex();
+			int end = chunk.writerIndex();
+
+			while (position < end) {
+				int lineFeed = chunk.forEachByte(position, end - position, ByteProcessor.FIND_LF);
+				if (lineFeed < 0) {
+					append(partialLine, chunk, position, end - position);
+					break;
+				}
+
+				if (partialLine.isReadable()) {
+					append(partialLine, chunk, position, lineFeed - position);
+					onLine(stripCarriageReturn(partialLine), values);
+					partialLine.clear();
+				} else {
+					onLine(stripCarriageReturn(chunk.slice(position, lineFeed - position)), values);
+				}
+				position = lineFeed + 1;
+			}
+			return values;
+		}
+
+		private List<T> finish() {
+			List<T> values = new ArrayList<>();
+			if (partialLine.isReadable()) {
+				onLine(stripCarriageReturn(partialLine), values);
+				partialLine.clear();
+			}
+			if (framing == Framing.SERVER_SENT_EVENTS) {
+				dispatchEvent(values);
+			}
+			return values;
+		}
+
+		private void onLine(ByteBuf line, List<T> values) {
+			if (framing == Framing.LINES) {
+				if (line.isReadable()) {
+					values.add(mapper.apply(line));
+				}
+				return;
+			}
+
+			if (!line.isReadable()) {
+				dispatchEvent(values);
+				return;
+			}
+			int colon = line.indexOf(line.readerIndex(), line.writerIndex(), (byte) ':');
+			int nameLength = colon < 0 ? line.readableBytes() : colon - line.readerIndex();
+			if (nameLength == 0 || !line.slice(line.readerIndex(), nameLength).equals(DATA_FIELD)) {
+				return;
+			}
+
+			int valueStart = colon < 0 ? line.writerIndex() : colon + 1;
+			if (valueStart < line.writerIndex() && line.getByte(valueStart) == ' ') {
+				valueStart++;
+			}
+			if (eventHasData) {
+				eventData.writeByte('\n');
+			}
+			append(eventData, line, valueStart, line.writerIndex() - valueStart);
+			eventHasData = true;
+		}
+
+		private void dispatchEvent(List<T> values) {
+			if (eventHasData) {
+				values.add(mapper.apply(eventData));
+				eventData.clear();
+				eventHasData = false;
+			}
+		}
+
+		private void append(ByteBuf target, ByteBuf source, int index, int length) {
+			if (target.readableBytes() + length > maxFrameLength) {
+				throw new TooLongFrameException(maxFrameLength);
+			}
+			target.writeBytes(source, index, length);
+		}
+
+		private ByteBuf stripCarriageReturn(ByteBuf line) {
+			int length = line.readableBytes();
+			if (length > maxFrameLength) {
+				throw new TooLongFrameException(maxFrameLength);
+			}
+			if (length > 0 && line.getByte(line.writerIndex() - 1) == '\r') {
+				return line.slice(line.readerIndex(), length - 1);
+			}
+			return line;
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package org.ablonewolf.fluxExamples;
+
+import org.ablonewolf.common.Util;
+import org.ablonewolf.services.FileReaderService;
+import org.ablonewolf.services.impl.FileReaderServiceUsingMemoryMap;
+
+import java.nio.file.Path;
+
+/**
+ * Demonstrates reading a file reactively through a memory-mapped {@link FileReaderService}.
+ * <p>
+ * The class utilizes {@link FileReaderServiceUsingMemoryMap} which maps the file into memory and scans it for
+ * line boundaries instead of going through a buffered reader. It performs the following steps:
+ * - Resolves the path to the file.
+ * - Reads the file content as a reactive stream.
+ * - Limits the emitted lines to the first 50 using the `take` operator.
+ * - Subscribes to the stream using a custom subscriber for processing.
+ */
+public class DemonstrateFileReadingWithMemoryMap {
+
+	private static final Path PATH = Path.of("src/main/resources/");
+
+	public static void main(String[] args) {
+		FileReaderService fileReaderService = new FileReaderServiceUsingMemoryMap();
+
+		fileReaderService.read(PATH.resolve("sample_file.txt"))
+				.take(50)
+				.subscribe(Util.subscriber("Memory Mapped File Reader Subscriber"));
+	}
+}
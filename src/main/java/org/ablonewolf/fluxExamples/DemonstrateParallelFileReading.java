@@ -0,0 +1,41 @@
+package org.ablonewolf.fluxExamples;
+
+import org.ablonewolf.common.Util;
+import org.ablonewolf.services.FileReaderService;
+import org.ablonewolf.services.impl.FileReaderServiceUsingMemoryMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+
+/**
+ * Demonstrates reading a single file on several {@code Schedulers.parallel()} rails at once.
+ * <p>
+ * The file is split into byte ranges aligned to line boundaries by {@link FileReaderServiceUsingMemoryMap}, and
+ * each range is read independently:<br>
+ * - {@link FileReaderService#readParallel(Path, int)} emits lines from all rails as soon as they are read, so the
+ * count is reported without caring about order.<br>
+ * - {@link FileReaderService#readParallelOrdered(Path, int)} reads the ranges concurrently as well, but emits the
+ * lines back in file order, which is shown by taking the first 10 lines.
+ */
+public class DemonstrateParallelFileReading {
+
+	private static final Logger log = LoggerFactory.getLogger(DemonstrateParallelFileReading.class);
+	private static final Path PATH = Path.of("src/main/resources/");
+
+	public static void main(String[] args) {
+		FileReaderService fileReaderService = new FileReaderServiceUsingMemoryMap();
+		Path path = PATH.resolve("sample_file.txt");
+
+		fileReaderService.readParallel(path, 4)
+				.sequential()
+				.count()
+				.subscribe(count -> log.info("Read {} lines on 4 rails", count));
+
+		fileReaderService.readParallelOrdered(path, 4)
+				.take(10)
+				.subscribe(Util.subscriber("Ordered Parallel File Reader Subscriber"));
+
+		Util.sleepSeconds(2L);
+	}
+}
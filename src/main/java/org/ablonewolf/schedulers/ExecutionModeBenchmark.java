@@ -0,0 +1,127 @@
+package org.ablonewolf.schedulers;
+
+import org.ablonewolf.common.HttpClientConfig;
+import org.ablonewolf.server.ExternalServiceStandIn;
+import org.ablonewolf.services.impl.ExternalServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Compares the execution modes of {@link ExternalServiceClient}: delivering results on the Netty event loop, and
+ * offloading them to {@link Schedulers#boundedElastic()}.
+ * <p>
+ * The class operates as follows:<br>
+ * - Starts an {@link ExternalServiceStandIn} on a free port, so the numbers reflect the client rather than a remote
+ * service.<br>
+ * - Alternates between the modes for {@value #ROUNDS} rounds. In every round, each mode warms up with
+ * {@value #WARMUP_REQUESTS} product info lookups, then measures {@value #MEASURED_REQUESTS} lookups with
+ * {@value #CONCURRENCY} in flight. The first round mostly measures JIT compilation; compare the later ones.<br>
+ * - Logs the p50, p99 and max latency of a lookup, the throughput, the number of threads results were delivered on,
+ * and the number of context switches of the process, read from {@code /proc/self/task} where available.
+ * <p>
+ * Each {@link ExternalServiceClient#getProductInfo(Integer)} call makes three requests. The event loop mode hands
+ * none of them over to another thread, and the offload mode hands over only the combined result.
+ */
+public class ExecutionModeBenchmark {
+
+	private static final Logger log = LoggerFactory.getLogger(ExecutionModeBenchmark.class);
+	private static final int WARMUP_REQUESTS = 5_000;
+	private static final int MEASURED_REQUESTS = 20_000;
+	private static final int CONCURRENCY = 64;
+	private static final int ROUNDS = 3;
+
+	public static void main(String[] args) {
+		var server = ExternalServiceStandIn.start(0);
+		var config = HttpClientConfig.fromSystemProperties()
+				.withBaseUrl("http://localhost:%d/".formatted(server.port()));
+
+		var eventLoopClient = new ExternalServiceClient(config, null, null);
+		var offloadingClient = new ExternalServiceClient(config, null, Schedulers.boundedElastic());
+		try {
+			for (int round = 1; round <= ROUNDS; round++) {
+				run("round %d, event loop".formatted(round), eventLoopClient);
+				run("round %d, offload to boundedElastic".formatted(round), offloadingClient);
+			}
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	private static void run(String mode, ExternalServiceClient client) {
+		lookUp(client, WARMUP_REQUESTS, ConcurrentHashMap.newKeySet());
+
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		long contextSwitchesBefore = contextSwitches();
+		long startedAt = System.nanoTime();
+		long[] latencies = lookUp(client, MEASURED_REQUESTS, threads);
+		long elapsedNanos = System.nanoTime() - startedAt;
+		long contextSwitchesAfter = contextSwitches();
+
+		Arrays.sort(latencies);
+		log.info("{}: p50 {} µs, p99 {} µs, max {} µs, {} lookups/s, delivered on {} threads, {} context switches",
+				 mode,
+				 latencies[latencies.length / 2] / 1_000,
+				 latencies[(int) (latencies.length * 0.99)] / 1_000,
+				 latencies[latencies.length - 1] / 1_000,
+				 MEASURED_REQUESTS * 1_000_000_000L / elapsedNanos,
+				 threads.size(),
+				 contextSwitchesBefore < 0 ? "n/a" : contextSwitchesAfter - contextSwitchesBefore);
+	}
+
+	/**
+	 * Looks up the given number of products and returns the latency of every lookup, recording the threads the
+	 * results were delivered on.
+	 */
+	private static long[] lookUp(ExternalServiceClient client, int requests, Set<String> threads) {
+		long[] latencies = new long[requests];
+		Flux.range(0, requests)
+				.flatMap(index -> Mono.defer(() -> {
+					long startedAt = System.nanoTime();
+					return client.getProductInfo(index % 1_000 + 1)
+							.doOnNext(productInfo -> {
+								latencies[index] = System.nanoTime() - startedAt;
+								threads.add(Thread.currentThread().getName());
+							});
+				}), CONCURRENCY)
+				.blockLast();
+		return latencies;
+	}
+
+	/**
+	 * Sums the voluntary and involuntary context switches of every live thread of the process, or returns -1 where
+	 * {@code /proc} is not available.
+	 */
+	private static long contextSwitches() {
+		Path tasks = Path.of("/proc/self/task");
+		if (!Files.isDirectory(tasks)) {
+			return -1;
+		}
+		try (Stream<Path> threads = Files.list(tasks)) {
+			return threads.mapToLong(ExecutionModeBenchmark::contextSwitches).sum();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	private static long contextSwitches(Path task) {
+		try (Stream<String> lines = Files.lines(task.resolve("status"))) {
+			return lines.filter(line -> line.contains("ctxt_switches:"))
+					.mapToLong(line -> Long.parseLong(line.substring(line.indexOf(':') + 1).trim()))
+					.sum();
+		} catch (IOException | RuntimeException e) {
+			// the thread exited while being read
+			return 0;
+		}
+	}
+}
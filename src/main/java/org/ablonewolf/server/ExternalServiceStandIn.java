@@ -0,0 +1,167 @@
+package org.ablonewolf.server;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.ablonewolf.common.Util;
+import org.ablonewolf.model.ProductInfo;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An embedded stand-in for the external service consumed by
+ * {@link org.ablonewolf.services.impl.ExternalServiceClient}, so that features depending on it can be run without
+ * the external application.
+ * <p>
+ * Endpoints:<br>
+ * - {@code GET /demo01/product/{id}}, {@code GET /demo05/price/{id}}, {@code GET /demo05/review/{id}}: return the
+ * name, price or review of a single product.<br>
+ * - {@code GET /demo05/products?ids=1,2,3}: returns the name, price and review of every requested product, one
+ * product per line, as tab-separated {@code id, name, price, review}.<br>
+ * - {@code GET /demo02/name/stream}: streams random names, one per line.<br>
+ * - {@code GET /demo02/price/stream}: streams a stock price taking a random walk around 100, one price per line.
+ * <p>
+ * Product data is derived from the product ID, so the same ID always produces the same product.
+ * <p>
+ * Load profile:
+ * Latency, error rate and stream rate follow a {@link LoadProfile}, read from {@code stand-in.*} system properties
+ * unless given explicitly. Every response, including each stream, is delayed by a latency drawn from the profile, and
+ * a share of requests is answered with {@code 500 Internal Server Error} instead, so that the client side can be
+ * benchmarked under realistic and repeatable conditions.
+ */
+public class ExternalServiceStandIn {
+
+	private static final Logger log = LoggerFactory.getLogger(ExternalServiceStandIn.class);
+	public static final int DEFAULT_PORT = 7070;
+
+	private ExternalServiceStandIn() {
+	}
+
+	public static void main(String[] args) {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		start(port).onDispose().block();
+	}
+
+	/**
+	 * Starts the stand-in server on the given port, with the load profile of the {@code stand-in.*} system
+	 * properties.
+	 *
+	 * @param port the port to listen on, or 0 to pick a free port
+	 * @return the running server, to be disposed once no longer needed
+	 */
+	public static DisposableServer start(int port) {
+		return start(port, LoadProfile.fromSystemProperties());
+	}
+
+	/**
+	 * Starts the stand-in server on the given port.
+	 *
+	 * @param port    the port to listen on, or 0 to pick a free port
+	 * @param profile the latency, error rate and stream rate to simulate
+	 * @return the running server, to be disposed once no longer needed
+	 */
+	public static DisposableServer start(int port, LoadProfile profile) {
+		DisposableServer server = HttpServer.create()
+				.port(port)
+				.route(routes -> routes
+						.get("/demo01/product/{id}", withProfile(profile, productField(ProductInfo::productName)))
+						.get("/demo05/price/{id}", withProfile(profile, productField(ProductInfo::price)))
+						.get("/demo05/review/{id}", withProfile(profile, productField(ProductInfo::review)))
+						.get("/demo05/products", withProfile(profile, ExternalServiceStandIn::getProducts))
+						.get("/demo02/name/stream", withProfile(profile, streamOf(profile, ExternalServiceStandIn::names)))
+						.get("/demo02/price/stream", withProfile(profile, streamOf(profile, ExternalServiceStandIn::prices))))
+				.bindNow();
+		log.info("External service stand-in listening on port {} with {}", server.port(), profile);
+		return server;
+	}
+
+	static ProductInfo productInfo(Integer productId) {
+		return new ProductInfo("product-" + productId,
+							   String.valueOf(10 + Math.floorMod(productId * 37, 990)),
+							   String.valueOf(1 + Math.floorMod(productId * 7, 5)));
+	}
+
+	private static BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> productField(
+			Function<ProductInfo, String> field) {
+		return (request, response) -> {
+			Integer productId = Integer.parseInt(request.param("id"));
+			return response.sendString(Mono.just(field.apply(productInfo(productId))));
+		};
+	}
+
+	/**
+	 * Delays the handler by a latency drawn from the profile, or answers with an error instead, as the profile
+	 * decides.
+	 */
+	private static BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> withProfile(
+			LoadProfile profile, BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> handler) {
+		return (request, response) -> {
+			Duration latency = profile.sampleLatency();
+			Mono<Void> answer = profile.sampleError()
+					? response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR)
+					.sendString(Mono.just("simulated failure"))
+					.then()
+					: Mono.defer(() -> Mono.from(handler.apply(request, response)));
+			return latency.isZero() ? answer : Mono.delay(latency).then(answer);
+		};
+	}
+
+	private static BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> streamOf(
+			LoadProfile profile, Supplier<Flux<String>> elements) {
+		return (request, response) -> {
+			Flux<String> lines = elements.get()
+					.take(profile.streamLength())
+					.delayElements(profile.streamInterval())
+					.map(element -> element + "\n");
+			return response.header(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=utf-8")
+					.sendString(lines);
+		};
+	}
+
+	private static Flux<String> names() {
+		return Flux.generate(sink -> sink.next(Util.getFaker().name().firstName()));
+	}
+
+	private static Flux<String> prices() {
+		return Flux.<Integer, Integer>generate(() -> 100, (price, sink) -> {
+					sink.next(price);
+					return Math.max(1, price + ThreadLocalRandom.current().nextInt(-5, 6));
+				})
+				.map(String::valueOf);
+	}
+
+	private static Publisher<Void> getProducts(HttpServerRequest request, HttpServerResponse response) {
+		List<String> ids = new QueryStringDecoder(request.uri()).parameters().get("ids");
+		if (Objects.isNull(ids)) {
+			return response.status(HttpResponseStatus.BAD_REQUEST).sendString(Flux.just("missing ids"));
+		}
+
+		Flux<String> lines = Flux.fromIterable(ids)
+				.flatMapIterable(value -> Arrays.asList(value.split(",")))
+				.map(String::trim)
+				.filter(value -> !value.isEmpty())
+				.map(Integer::parseInt)
+				.map(productId -> {
+					ProductInfo productInfo = productInfo(productId);
+					return "%d\t%s\t%s\t%s\n".formatted(productId, productInfo.productName(), productInfo.price(),
+														 productInfo.review());
+				});
+		return response.sendString(lines);
+	}
+}
@@ -0,0 +1,106 @@
+package org.ablonewolf.server;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How the {@link ExternalServiceStandIn} behaves under load: how long it takes to answer, how often it fails and how
+ * fast it streams.
+ * <p>
+ * {@link #fromSystemProperties()} reads every setting from a system property prefixed with
+ * {@value #PROPERTY_PREFIX}, falling back to the defaults below, e.g. {@code -Dstand-in.error-rate=0.01}.
+ * <p>
+ * Settings:<br>
+ * - {@code median-latency}, {@code p99-latency}: the median and 99th percentile, in ms, of a log-normal distribution
+ * the latency of every response is drawn from, 0 by default. Equal values give a fixed latency, and a median of 0
+ * requires a 99th percentile of 0 as well.<br>
+ * - {@code error-rate}: the share of requests answered with {@code 500 Internal Server Error}, 0 by default.<br>
+ * - {@code stream-interval}: the time, in ms, between two elements of a stream, 500 by default.<br>
+ * - {@code stream-length}: the number of elements in a stream, 20 by default.
+ *
+ * @param medianLatency  the median latency of a response, not negative
+ * @param p99Latency     the 99th percentile latency of a response, at least the median
+ * @param errorRate      the share of failed requests, between 0 and 1
+ * @param streamInterval the time between two elements of a stream, positive
+ * @param streamLength   the number of elements in a stream, positive
+ */
+public record LoadProfile(Duration medianLatency,
+						  Duration p99Latency,
+						  double errorRate,
+						  Duration streamInterval,
+						  int streamLength) {
+
+	public static final String PROPERTY_PREFIX = "stand-in.";
+
+	/**
+	 * The z-score of the 99th percentile of a standard normal distribution.
+	 */
+	private static final double Z_99 = 2.326;
+
+	public LoadProfile {
+		if (medianLatency.isNegative()) {
+			throw new IllegalArgumentException("medianLatency must not be negative, but was " + medianLatency);
+		}
+		if (p99Latency.compareTo(medianLatency) < 0) {
+			throw new IllegalArgumentException("p99Latency must not be lower than medianLatency");
+		}
+		if (medianLatency.isZero() && !p99Latency.isZero()) {
+			throw new IllegalArgumentException("p99Latency must be 0 when medianLatency is 0, but was " + p99Latency);
+		}
+		if (errorRate < 0 || errorRate > 1) {
+			throw new IllegalArgumentException("errorRate must be between 0 and 1, but was " + errorRate);
+		}
+		if (streamInterval.isZero() || streamInterval.isNegative()) {
+			throw new IllegalArgumentException("streamInterval must be positive, but was " + streamInterval);
+		}
+		if (streamLength < 1) {
+			throw new IllegalArgumentException("streamLength must be at least 1, but was " + streamLength);
+		}
+	}
+
+	public static LoadProfile fromSystemProperties() {
+		return new LoadProfile(
+				Duration.ofMillis(Long.parseLong(property("median-latency", "0"))),
+				Duration.ofMillis(Long.parseLong(property("p99-latency", "0"))),
+				Double.parseDouble(property("error-rate", "0")),
+				Duration.ofMillis(Long.parseLong(property("stream-interval", "500"))),
+				Integer.parseInt(property("stream-length", "20"))
+		);
+	}
+
+	public LoadProfile withLatency(Duration medianLatency, Duration p99Latency) {
+		return new LoadProfile(medianLatency, p99Latency, errorRate, streamInterval, streamLength);
+	}
+
+	public LoadProfile withErrorRate(double errorRate) {
+		return new LoadProfile(medianLatency, p99Latency, errorRate, streamInterval, streamLength);
+	}
+
+	public LoadProfile withStreams(Duration streamInterval, int streamLength) {
+		return new LoadProfile(medianLatency, p99Latency, errorRate, streamInterval, streamLength);
+	}
+
+	/**
+	 * Draws the latency of one response.
+	 */
+	public Duration sampleLatency() {
+		long median = medianLatency.toNanos();
+		if (median == 0 || p99Latency.equals(medianLatency)) {
+			return medianLatency;
+		}
+		double sigma = Math.log((double) p99Latency.toNanos() / median) / Z_99;
+		double gaussian = ThreadLocalRandom.current().nextGaussian();
+		return Duration.ofNanos((long) (median * Math.exp(sigma * gaussian)));
+	}
+
+	/**
+	 * Decides whether one request fails.
+	 */
+	public boolean sampleError() {
+		return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+	}
+
+	private static String property(String name, String defaultValue) {
+		return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+	}
+}
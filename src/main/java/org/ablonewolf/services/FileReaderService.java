@@ -1,10 +1,71 @@
 package org.ablonewolf.services;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.ParallelFlux;
+import reactor.core.scheduler.Schedulers;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 
 public interface FileReaderService {
 
 	Flux<String> read(Path path);
+
+	/**
+	 * Reads the file at the given path line by line, emitting the raw UTF-8 bytes of each line without its line
+	 * terminator, so that consumers which only inspect bytes do not pay for decoding. Use {@link #decode(ByteBuffer)}
+	 * to turn a line into a String when it is actually needed.
+	 * <p>
+	 * Emitted buffers are owned by the subscriber but must be treated as read-only, and may be views over storage
+	 * shared with other lines; a consumer that keeps a line beyond its {@code onNext} should copy it.
+	 * <p>
+	 * The default implementation encodes the lines returned by {@link #read(Path)}, so it only saves work in
+	 * implementations that override it.
+	 *
+	 * @param path the path of the file to be read
+	 * @return a Flux emitting each line of the file as a ByteBuffer
+	 */
+	default Flux<ByteBuffer> readBytes(Path path) {
+		return read(path)
+				.map(line -> ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer());
+	}
+
+	/**
+	 * Reads the file at the given path on {@link Schedulers#parallel()} rails. Lines are not emitted in file order.
+	 * <p>
+	 * The default implementation still reads the file sequentially and only distributes the lines across rails;
+	 * implementations that can read disjoint parts of a file independently should override it.
+	 *
+	 * @param path        the path of the file to be read
+	 * @param parallelism the number of rails
+	 * @return a ParallelFlux emitting the lines of the file
+	 */
+	default ParallelFlux<String> readParallel(Path path, int parallelism) {
+		return read(path)
+				.parallel(parallelism)
+				.runOn(Schedulers.parallel());
+	}
+
+	/**
+	 * Reads the file at the given path in parallel like {@link #readParallel(Path, int)}, but restores the
+	 * original line order before emitting.
+	 *
+	 * @param path        the path of the file to be read
+	 * @param parallelism the maximum number of parts of the file read at the same time
+	 * @return a Flux emitting the lines of the file in file order
+	 */
+	default Flux<String> readParallelOrdered(Path path, int parallelism) {
+		return read(path);
+	}
+
+	/**
+	 * Decodes a line emitted by {@link #readBytes(Path)} as UTF-8, without changing the position of the buffer.
+	 *
+	 * @param line the bytes of a single line
+	 * @return the decoded line
+	 */
+	static String decode(ByteBuffer line) {
+		return StandardCharsets.UTF_8.decode(line.duplicate()).toString();
+	}
 }
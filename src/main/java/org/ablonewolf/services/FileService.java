@@ -1,7 +1,11 @@
 package org.ablonewolf.services;
 
+import org.ablonewolf.common.Compression;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
+
 public interface FileService {
 
     Mono<String> read(String fileName);
@@ -9,4 +13,49 @@ public interface FileService {
     Mono<Void> write(String fileName, String content);
 
     Mono<Void> delete(String fileName);
+
+    /**
+     * Streams the content of a file as a sequence of byte chunks, so that the file never has to fit in memory.
+     * The next chunk is only read once downstream has requested it, and an I/O error terminates the stream with
+     * that error rather than truncating it silently.
+     *
+     * @param fileName the name of the file to read
+     * @return a Flux emitting the bytes of the file in order
+     */
+    Flux<ByteBuffer> readStream(String fileName);
+
+    /**
+     * Writes a stream of byte chunks to a file, replacing any previous content. Chunks are requested one at a
+     * time, each only after the previous one has been written, so at most one chunk is held in flight. The
+     * remaining bytes of every chunk are consumed.
+     *
+     * @param fileName the name of the file to write
+     * @param content  the chunks to write, in order
+     * @return a Mono completing once all chunks have been written, or failing with the first I/O error
+     */
+    Mono<Void> writeStream(String fileName, Flux<ByteBuffer> content);
+
+    /**
+     * Streams the content of a file like {@link #readStream(String)}, decompressing it on the way.
+     *
+     * @param fileName    the name of the compressed file to read
+     * @param compression the format the file was compressed with
+     * @return a Flux emitting the decompressed bytes of the file in order
+     */
+    default Flux<ByteBuffer> readStream(String fileName, Compression compression) {
+        return compression.decompress(readStream(fileName));
+    }
+
+    /**
+     * Writes a stream of byte chunks like {@link #writeStream(String, Flux)}, compressing them on the way. Chunks are
+     * compressed on a dedicated scheduler, pipelined with producing and writing the neighbouring chunks.
+     *
+     * @param fileName    the name of the file to write
+     * @param content     the uncompressed chunks to write, in order
+     * @param compression the compression format and level
+     * @return a Mono completing once all compressed chunks have been written
+     */
+    default Mono<Void> writeStream(String fileName, Flux<ByteBuffer> content, Compression compression) {
+        return writeStream(fileName, compression.compress(content));
+    }
 }
@@ -2,9 +2,15 @@ package org.ablonewolf.services;
 
 import org.ablonewolf.model.ItemOrder;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 
@@ -21,33 +27,152 @@ import java.util.function.UnaryOperator;
  * The process flow for each category is as follows:<br>
  * - "Kids": Applies promotional logic to add a free order for each order in this category.<br>
  * - "Automotive": Adjusts the price of each order by adding 100 USD.
+ * <p>
+ * Rules:<br>
+ * - The processing of a category is a {@link Rule}, which receives one order and emits any number of orders. Rules
+ * can be registered and unregistered at runtime with {@link #registerRule} and {@link #unregisterRule}; the two
+ * categories above are registered up front.<br>
+ * - {@link #process()} compiles all rules into a single operator that routes every order to the rule of its
+ * category and drops orders of other categories. A change of rules applies to streams that are already running,
+ * starting with their next order.<br>
+ * - The operator allocates nothing per order beyond the orders the rules create. The orders a rule emits are
+ * collected in an emitter that every subscription reuses for all of its orders, and are then flattened into the
+ * stream.
  */
 public class OrderProcessingService {
 
-	private static final Map<String, UnaryOperator<Flux<ItemOrder>>> ORDER_PROCESSING_MAP = Map.of(
-			"Kids", processKidOrders(),
-			"Automotive", processAutomotiveOrders()
-	);
+	/**
+	 * Processes one order of a category, emitting its results to the emitter. A rule emits nothing to drop the
+	 * order, and is called for one order at a time per stream.
+	 */
+	@FunctionalInterface
+	public interface Rule {
+
+		void apply(ItemOrder order, Consumer<ItemOrder> emitter);
+	}
+
+	private static volatile Map<String, Rule> rules = Map.of();
+
+	static {
+		registerRule("Kids", OrderProcessingService::addFreeKidsOrder);
+		registerRule("Automotive", OrderProcessingService::addAutomotiveSurcharge);
+	}
+
+	/**
+	 * Registers the rule for a category, replacing any rule registered for it before.
+	 */
+	public static synchronized void registerRule(String category, Rule rule) {
+		var updated = new HashMap<>(rules);
+		updated.put(category, Objects.requireNonNull(rule));
+		rules = Map.copyOf(updated);
+	}
+
+	public static synchronized void unregisterRule(String category) {
+		var updated = new HashMap<>(rules);
+		updated.remove(category);
+		rules = Map.copyOf(updated);
+	}
 
 	public static Predicate<ItemOrder> canProcess() {
-		return itemOrder -> ORDER_PROCESSING_MAP.containsKey(itemOrder.category());
+		return itemOrder -> rules.containsKey(itemOrder.category());
 	}
 
+	/**
+	 * Returns the operator processing orders of the given category, or {@code null} if no rule is registered for it.
+	 */
 	public static UnaryOperator<Flux<ItemOrder>> getProcessor(String category) {
-		return ORDER_PROCESSING_MAP.get(category);
+		return rules.containsKey(category) ? process() : null;
 	}
 
-	private static UnaryOperator<Flux<ItemOrder>> processAutomotiveOrders() {
-		return itemOrder ->
-				itemOrder.map(order -> new ItemOrder(order.item(), order.category(), order.price() + 100));
+	/**
+	 * Returns the operator applying the rule of its category to every order.
+	 */
+	public static UnaryOperator<Flux<ItemOrder>> process() {
+		return orders -> Flux.defer(() -> {
+			var emitter = new ReusableEmitter();
+			return orders.flatMapIterable(emitter::apply);
+		});
 	}
 
-	private static UnaryOperator<Flux<ItemOrder>> processKidOrders() {
-		return kidOrder -> kidOrder
-				.flatMap(order -> getFreeKidsOrder(order).flux().startWith(order));
+	private static void addAutomotiveSurcharge(ItemOrder order, Consumer<ItemOrder> emitter) {
+		emitter.accept(new ItemOrder(order.item(), order.category(), order.price() + 100));
 	}
 
-	private static Mono<ItemOrder> getFreeKidsOrder(ItemOrder order) {
-		return Mono.fromSupplier(() -> new ItemOrder(order.item() + "-FREE", order.category(), 0));
+	private static void addFreeKidsOrder(ItemOrder order, Consumer<ItemOrder> emitter) {
+		emitter.accept(order);
+		emitter.accept(new ItemOrder(order.item() + "-FREE", order.category(), 0));
+	}
+
+	/**
+	 * Collects the orders a rule emits for one order and hands them out again as its own {@link Spliterator}.
+	 * <p>
+	 * Reuse:<br>
+	 * - {@link Flux#flatMapIterable} keeps a single current iterable per subscriber, and only applies its mapper to
+	 * the next order once the current one is exhausted. This holds both when it drains to its subscriber and when a
+	 * fused subscriber, such as {@link Flux#publishOn}, polls it, so a single instance can be reset and reused for
+	 * every order of a subscription.<br>
+	 * - An instance is created per subscription by {@link #process()}, so subscriptions never share one.<br>
+	 * - The orders emitted for an order must not be kept as an {@link Iterable} beyond the next one, which only
+	 * {@link Flux#flatMapIterable} has access to.
+	 */
+	private static final class ReusableEmitter implements Consumer<ItemOrder>, Iterable<ItemOrder>,
+														   Spliterator<ItemOrder> {
+
+		private ItemOrder[] emitted = new ItemOrder[4];
+		private int size = 0;
+		private int next = 0;
+
+		private ReusableEmitter apply(ItemOrder order) {
+			Arrays.fill(emitted, 0, size, null);
+			size = 0;
+			next = 0;
+			Rule rule = rules.get(order.category());
+			if (Objects.nonNull(rule)) {
+				rule.apply(order, this);
+			}
+			return this;
+		}
+
+		@Override
+		public void accept(ItemOrder order) {
+			if (size == emitted.length) {
+				emitted = Arrays.copyOf(emitted, size * 2);
+			}
+			emitted[size++] = Objects.requireNonNull(order);
+		}
+
+		@Override
+		public Iterator<ItemOrder> iterator() {
+			return Spliterators.iterator(this);
+		}
+
+		@Override
+		public Spliterator<ItemOrder> spliterator() {
+			return this;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super ItemOrder> action) {
+			if (next == size) {
+				return false;
+			}
+			action.accept(emitted[next++]);
+			return true;
+		}
+
+		@Override
+		public Spliterator<ItemOrder> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return size - next;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | NONNULL;
+		}
 	}
 }
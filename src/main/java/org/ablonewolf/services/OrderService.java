@@ -2,47 +2,54 @@ package org.ablonewolf.services;
 
 import org.ablonewolf.common.Util;
 import org.ablonewolf.model.Order;
+import org.ablonewolf.services.impl.OrderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
-
-import java.time.Duration;
-import java.util.List;
-import java.util.Map;
+import reactor.core.publisher.Mono;
 
 /**
  * Provides order-related services in a reactive manner using Project Reactor.
- * This service works with a static order table to simulate order storage,
- * which maps user IDs to their respective lists of orders.
+ * This service keeps orders in an {@link OrderRepository}, indexed by order ID and by user ID,
+ * which is seeded with a few sample orders and can be written to and read from concurrently.
  * <p>
- * The primary functionality includes retrieving orders for a specific user,
- * with simulated delays and logging.
+ * The primary functionality includes placing orders and retrieving the orders of a specific user,
+ * streamed straight from the per-user index, with logging.
  */
 public class OrderService {
 
 	private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
-	private static final Map<Integer, List<Order>> orderTable = Map.of(
-			1, List.of(
-					new Order(1, 1, Util.getFaker().commerce().productName(),
-							  Util.getFaker().random().nextInt(10, 100)),
-					new Order(2, 1, Util.getFaker().commerce().productName(),
-							  Util.getFaker().random().nextInt(10, 100))
-			),
-			2, List.of(
-					new Order(3, 2, Util.getFaker().commerce().productName(),
-							  Util.getFaker().random().nextInt(10, 100)),
-					new Order(4, 2, Util.getFaker().commerce().productName(),
-							  Util.getFaker().random().nextInt(10, 100)),
-					new Order(5, 2, Util.getFaker().commerce().productName(),
-							  Util.getFaker().random().nextInt(10, 100))
-			),
-			3, List.of()
-	);
+	private static final OrderRepository orderRepository = new OrderRepository();
+
+	static {
+		placeSampleOrder(1);
+		placeSampleOrder(1);
+		placeSampleOrder(2);
+		placeSampleOrder(2);
+		placeSampleOrder(2);
+	}
 
 	public static Flux<Order> getUserOrders(Integer userId) {
-		return Flux.fromIterable(orderTable.get(userId))
-				.delayElements(Duration.ofMillis(500))
+		return Flux.defer(() -> Flux.fromIterable(orderRepository.findByUserId(userId)))
 				.transform(Util.getFluxLogger(String.format("Orders for User: %d", userId), log));
 	}
+
+	public static Mono<Order> getOrder(Integer orderId) {
+		return Mono.fromSupplier(() -> orderRepository.findById(orderId));
+	}
+
+	public static Mono<Order> placeOrder(Integer userId, String productName, Integer price) {
+		return Mono.fromSupplier(() -> {
+			var order = new Order(orderRepository.nextOrderId(), userId, productName, price);
+			orderRepository.insert(order);
+			return order;
+		});
+	}
+
+	private static void placeSampleOrder(Integer userId) {
+		orderRepository.insert(new Order(orderRepository.nextOrderId(), userId,
+										 Util.getFaker().commerce().productName(),
+										 Util.getFaker().random().nextInt(10, 100)));
+	}
 }
@@ -1,28 +1,60 @@
 package org.ablonewolf.services;
 
+import org.ablonewolf.services.impl.BalanceLedger;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
-
 /**
  * Provides a service to manage user payment information, specifically user balances.
- * This class is designed to access and retrieve the balance associated with a
+ * This class is designed to access and update the balance associated with a
  * given user ID in a reactive and non-blocking manner using Project Reactor's Mono API.
  * <p>
- * The user balance data is maintained as a static in-memory mapping to simulate user
- * balance storage. This implementation is useful in scenarios where reactive programming
- * is required, enabling asynchronous and efficient data retrieval.
+ * The user balances are kept in a {@link BalanceLedger}, which stores them in primitive arrays
+ * and updates them atomically, so checking or changing a balance neither locks nor boxes.
+ * For the hottest paths, {@link #hasSufficientBalance(int, long)} checks a balance without
+ * any allocation at all, and {@link #getBalanceSnapshot()} reads every balance in one pass.
  */
 public class PaymentService {
 
-	private static final Map<Integer, Integer> userBalanceTable = Map.of(
-			1, 100,
-			2, 200,
-			3, 300
-	);
+	private static final BalanceLedger ledger = new BalanceLedger();
+
+	static {
+		ledger.open(1, 100);
+		ledger.open(2, 200);
+		ledger.open(3, 300);
+	}
 
 	public static Mono<Integer> getUserBalance(Integer userId) {
-		return Mono.fromSupplier(() -> userBalanceTable.get(userId));
+		return Mono.fromSupplier(() -> ledger.contains(userId) ? Math.toIntExact(ledger.balance(userId)) : null);
+	}
+
+	/**
+	 * Checks synchronously whether the user exists and has at least the given balance.
+	 */
+	public static boolean hasSufficientBalance(int userId, long amount) {
+		return ledger.contains(userId) && ledger.balance(userId) >= amount;
+	}
+
+	/**
+	 * Debits the user's balance, emitting {@code false} instead if funds are insufficient.
+	 */
+	public static Mono<Boolean> debit(Integer userId, long amount) {
+		return Mono.fromCallable(() -> ledger.debit(userId, amount));
+	}
+
+	public static Mono<Long> credit(Integer userId, long amount) {
+		return Mono.fromCallable(() -> ledger.credit(userId, amount));
+	}
+
+	/**
+	 * Moves the amount from one user's balance to another's, emitting {@code false} instead if the paying user has
+	 * insufficient funds.
+	 */
+	public static Mono<Boolean> transfer(Integer fromUserId, Integer toUserId, long amount) {
+		return Mono.fromCallable(() -> ledger.transfer(fromUserId, toUserId, amount));
+	}
+
+	public static Mono<BalanceLedger.Snapshot> getBalanceSnapshot() {
+		return Mono.fromSupplier(ledger::snapshot);
 	}
 
 }
@@ -0,0 +1,213 @@
+package org.ablonewolf.services;
+
+import org.ablonewolf.model.Order;
+import org.ablonewolf.model.User;
+import org.ablonewolf.model.UserInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Builds {@link UserInformation} views for large numbers of users, joining each user with their balance from
+ * {@link PaymentService} and their orders from {@link OrderService}.
+ * <p>
+ * Functionality:<br>
+ * - Users are spread over {@code parallelism} rails running on {@link Schedulers#parallel()}, and every rail joins
+ * at most {@code concurrencyPerRail} users at a time, so the number of joins in flight is bounded and the source of
+ * users is only read as fast as joins complete.<br>
+ * - {@link #aggregate(Flux)} emits one complete view per user, holding all of the user's orders.<br>
+ * - {@link #aggregateIncrementally(Flux)} emits a user's balance as soon as it is known, in a view without orders,
+ * followed by one view per chunk of at most {@code orderChunkSize} orders. A user with many orders then never has
+ * them all in memory at once, and consumers can start on the balance before the orders arrive.<br>
+ * - The latency of the balance lookup, of reading the orders and of the whole join is recorded per stage, anew for
+ * every subscription, logged once the run completes and exposed for the latest run through
+ * {@link #getStageLatencies()}.
+ * <p>
+ * As before, users without a balance are left out. Views of different users are emitted in no particular order.
+ * <p>
+ * Balances and orders are looked up in {@link PaymentService} and {@link OrderService} unless other lookups are
+ * given, such as slower ones to benchmark or test the pipeline with.
+ */
+public class UserInformationPipeline {
+
+	private static final Logger log = LoggerFactory.getLogger(UserInformationPipeline.class);
+
+	private final int parallelism;
+	private final int concurrencyPerRail;
+	private final int orderChunkSize;
+	private final Function<Integer, Mono<Integer>> balances;
+	private final Function<Integer, Flux<Order>> orders;
+	private volatile Run latestRun = new Run();
+
+	/**
+	 * @param parallelism        the number of rails users are spread over
+	 * @param concurrencyPerRail the maximum number of users joined at a time on each rail
+	 * @param orderChunkSize     the maximum number of orders in one view emitted by
+	 *                           {@link #aggregateIncrementally(Flux)}
+	 */
+	public UserInformationPipeline(int parallelism, int concurrencyPerRail, int orderChunkSize) {
+		this(parallelism, concurrencyPerRail, orderChunkSize, PaymentService::getUserBalance,
+			 OrderService::getUserOrders);
+	}
+
+	/**
+	 * @param parallelism        the number of rails users are spread over
+	 * @param concurrencyPerRail the maximum number of users joined at a time on each rail
+	 * @param orderChunkSize     the maximum number of orders in one view emitted by
+	 *                           {@link #aggregateIncrementally(Flux)}
+	 * @param balances           looks up the balance of a user ID, completing empty if the user has none
+	 * @param orders             looks up the orders of a user ID
+	 */
+	public UserInformationPipeline(int parallelism, int concurrencyPerRail, int orderChunkSize,
+								   Function<Integer, Mono<Integer>> balances, Function<Integer, Flux<Order>> orders) {
+		this.parallelism = parallelism;
+		this.concurrencyPerRail = concurrencyPerRail;
+		this.orderChunkSize = orderChunkSize;
+		this.balances = balances;
+		this.orders = orders;
+	}
+
+	/**
+	 * One rail per core, 32 users in flight per rail, and chunks of 100 orders.
+	 */
+	public static UserInformationPipeline withDefaults() {
+		return new UserInformationPipeline(Runtime.getRuntime().availableProcessors(), 32, 100);
+	}
+
+	public Flux<UserInformation> aggregate(Flux<User> users) {
+		return Flux.defer(() -> {
+			var run = startRun();
+			return users
+					.parallel(parallelism)
+					.runOn(Schedulers.parallel())
+					.flatMap(user -> timed(join(user, run), run.userLatency).flux(), false, concurrencyPerRail)
+					.sequential()
+					.doOnComplete(() -> logStageLatencies(run));
+		});
+	}
+
+	public Flux<UserInformation> aggregateIncrementally(Flux<User> users) {
+		return Flux.defer(() -> {
+			var run = startRun();
+			return users
+					.parallel(parallelism)
+					.runOn(Schedulers.parallel())
+					.flatMap(user -> timed(stream(user, run), run.userLatency), false, concurrencyPerRail)
+					.sequential()
+					.doOnComplete(() -> logStageLatencies(run));
+		});
+	}
+
+	/**
+	 * Returns the latencies recorded by the run subscribed to last, which may still be in progress.
+	 */
+	public List<StageLatency> getStageLatencies() {
+		return latestRun.getStageLatencies();
+	}
+
+	private Run startRun() {
+		var run = new Run();
+		latestRun = run;
+		return run;
+	}
+
+	private Mono<UserInformation> join(User user, Run run) {
+		return Mono.zip(timed(balances.apply(user.id()), run.balanceLatency),
+						timed(orders.apply(user.id()), run.ordersLatency).collectList())
+				.map(tuple -> new UserInformation(user.id(), user.username(), tuple.getT1(), tuple.getT2()));
+	}
+
+	private Flux<UserInformation> stream(User user, Run run) {
+		return timed(balances.apply(user.id()), run.balanceLatency)
+				.flatMapMany(balance -> {
+					Flux<List<Order>> orderChunks = timed(orders.apply(user.id()), run.ordersLatency)
+							.buffer(orderChunkSize);
+					return orderChunks
+							.map(chunk -> new UserInformation(user.id(), user.username(), balance, chunk))
+							.startWith(new UserInformation(user.id(), user.username(), balance, List.of()));
+				});
+	}
+
+	private static void logStageLatencies(Run run) {
+		run.getStageLatencies().forEach(stage -> log.info("{}", stage));
+	}
+
+	private static <T> Mono<T> timed(Mono<T> stage, StageLatency latency) {
+		return Mono.defer(() -> {
+			long startedAt = System.nanoTime();
+			return stage.doOnSuccess(value -> latency.record(System.nanoTime() - startedAt));
+		});
+	}
+
+	private static <T> Flux<T> timed(Flux<T> stage, StageLatency latency) {
+		return Flux.defer(() -> {
+			long startedAt = System.nanoTime();
+			return stage.doOnComplete(() -> latency.record(System.nanoTime() - startedAt));
+		});
+	}
+
+	/**
+	 * The latencies of the stages of one subscription to the pipeline.
+	 */
+	private static final class Run {
+
+		private final StageLatency balanceLatency = new StageLatency("balance");
+		private final StageLatency ordersLatency = new StageLatency("orders");
+		private final StageLatency userLatency = new StageLatency("user");
+
+		private List<StageLatency> getStageLatencies() {
+			return List.of(balanceLatency, ordersLatency, userLatency);
+		}
+	}
+
+	/**
+	 * The number, mean and maximum latency of the completed executions of one stage of the pipeline.
+	 */
+	public static final class StageLatency {
+
+		private final String stage;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		private StageLatency(String stage) {
+			this.stage = stage;
+		}
+
+		public String getStage() {
+			return stage;
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public double getMeanMicros() {
+			long executions = count.sum();
+			return executions == 0 ? 0 : totalNanos.sum() / 1_000.0 / executions;
+		}
+
+		public double getMaxMicros() {
+			return maxNanos.get() / 1_000.0;
+		}
+
+		@Override
+		public String toString() {
+			return "Stage %s: %d executions, mean %.1f µs, max %.1f µs".formatted(stage, getCount(), getMeanMicros(),
+																				   getMaxMicros());
+		}
+
+		private void record(long nanos) {
+			count.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+	}
+}
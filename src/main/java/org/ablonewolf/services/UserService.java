@@ -1,9 +1,13 @@
 package org.ablonewolf.services;
 
+import org.ablonewolf.common.MicroBatcher;
 import org.ablonewolf.model.User;
+import org.ablonewolf.services.impl.InMemoryUserStore;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -11,23 +15,90 @@ import java.util.Map;
  * This class includes methods to fetch user details in a reactive manner
  * using Project Reactor's Flux and Mono APIs.
  * <p>
- * The user data is maintained as a static mapping, which acts as
- * an in-memory user database.
+ * The user data is kept in a pluggable {@link UserStore}, an in-memory one by default,
+ * which can be replaced with {@link #useStore(UserStore)}.
+ * <p>
+ * Lookups are loaded in the style of a DataLoader:<br>
+ * - Single lookups made concurrently, by any number of callers, are collected by a {@link MicroBatcher} for up to
+ * {@code 2 ms} and resolved with one bulk query to the store, each username being queried once per batch. Every
+ * lookup therefore takes at least that long, even when it is the only one, and its result is delivered on the thread
+ * that completed the batch, usually a {@link reactor.core.scheduler.Schedulers#parallel()} worker, rather than on the
+ * subscribing thread.<br>
+ * - {@link #getUserIds(Flux)} additionally looks up a username only once while it is among the last
+ * {@value #DEDUPLICATION_WINDOW} distinct usernames of the stream, however often it occurs there.<br>
+ * - {@link #getAllUsers()} replays a cached snapshot of all users to every subscriber, reloading it from the store
+ * once it is a minute old.
  */
 public class UserService {
 
-	private static final Map<String, Integer> userTable = Map.of(
+	private static final int MAX_BATCH_SIZE = 500;
+	private static final Duration MAX_BATCH_WAIT = Duration.ofMillis(2);
+	private static final int MAX_CONCURRENT_BATCHES = 16;
+	private static final Duration SNAPSHOT_TIME_TO_LIVE = Duration.ofMinutes(1);
+	private static final int DEDUPLICATION_WINDOW = 10_000;
+
+	private static volatile Loader loader = new Loader(new InMemoryUserStore(Map.of(
 			"sam", 1,
 			"mike", 2,
 			"jake", 3
-	);
+	)));
+
+	/**
+	 * Replaces the backing store, dropping the cached snapshot of all users. Lookups that the previous store has not
+	 * answered yet fail with a {@link java.util.concurrent.CancellationException}.
+	 */
+	public static synchronized void useStore(UserStore store) {
+		Loader previous = loader;
+		loader = new Loader(store);
+		previous.userIds.dispose();
+	}
 
 	public static Flux<User> getAllUsers() {
-		return Flux.fromIterable(userTable.entrySet())
-				.map(entry -> new User(entry.getValue(), entry.getKey()));
+		return Flux.defer(() -> loader.allUsers);
 	}
 
+	/**
+	 * Looks up the ID of a user, batched with concurrent lookups. The result arrives after the batching window of
+	 * {@code 2 ms} at the earliest, on the thread that completed the batch.
+	 */
 	public static Mono<Integer> getUserId(String username) {
-		return Mono.fromSupplier(() -> userTable.get(username));
+		return Mono.defer(() -> loader.userIds.load(username));
+	}
+
+	/**
+	 * Resolves a stream of usernames to user IDs, in the order of the usernames. Unknown usernames are skipped, and a
+	 * username occurring again while it is among the last {@value #DEDUPLICATION_WINDOW} distinct usernames is not
+	 * looked up again, so that the memory used stays bounded however long the stream is.
+	 *
+	 * @param usernames the usernames to resolve
+	 * @return a Flux emitting the ID of every known username, in order
+	 */
+	public static Flux<Integer> getUserIds(Flux<String> usernames) {
+		return Flux.defer(() -> {
+			var userIds = loader.userIds;
+			Map<String, Mono<Integer>> requested = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Mono<Integer>> eldest) {
+					return size() > DEDUPLICATION_WINDOW;
+				}
+			};
+			return usernames.flatMapSequential(username ->
+					requested.computeIfAbsent(username, key -> userIds.load(key).cache()));
+		});
+	}
+
+	/**
+	 * The batched lookups and the cached snapshot of one store.
+	 */
+	private static final class Loader {
+
+		private final MicroBatcher<String, Integer> userIds;
+		private final Flux<User> allUsers;
+
+		private Loader(UserStore store) {
+			this.userIds = new MicroBatcher<>(MAX_BATCH_SIZE, MAX_BATCH_WAIT, MAX_CONCURRENT_BATCHES,
+											  store::findIdsByUsernames);
+			this.allUsers = store.findAll().cache(SNAPSHOT_TIME_TO_LIVE);
+		}
 	}
 }
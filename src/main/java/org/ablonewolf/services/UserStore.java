@@ -0,0 +1,24 @@
+package org.ablonewolf.services;
+
+import org.ablonewolf.model.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The backing store of {@link UserService}, queried in bulk so that many lookups can share a single round trip.
+ */
+public interface UserStore {
+
+	/**
+	 * Looks up the IDs of several users at once.
+	 *
+	 * @param usernames the distinct usernames to look up
+	 * @return a Mono of the user IDs keyed by username; unknown usernames are left out
+	 */
+	Mono<Map<String, Integer>> findIdsByUsernames(Collection<String> usernames);
+
+	Flux<User> findAll();
+}
@@ -0,0 +1,304 @@
+package org.ablonewolf.services.impl;
+
+import org.ablonewolf.services.FileService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link FileService} implementation built on {@link AsynchronousFileChannel}, so that no subscribing thread is
+ * ever blocked waiting on the disk.
+ * <p>
+ * Every read and write is issued with a {@link CompletionHandler} that is bridged to a {@link Mono}, and the signal is
+ * delivered on the thread of the channel's completion pool instead of the caller's. Contents are moved in fixed-size
+ * chunks, one chunk in flight at a time:<br>
+ * - {@link #read(String)} decodes the chunks incrementally into the resulting String, without first loading the whole
+ * file as a byte array.<br>
+ * - {@link #write(String, String)} encodes the content chunk by chunk instead of converting it to bytes up front.<br>
+ * - {@link #readStream(String)} and {@link #writeStream(String, Flux)} expose the raw chunks for files too large to
+ * hold as a String.
+ * <p>
+ * The JDK offers no asynchronous delete, so {@link #delete(String)} is offloaded to
+ * {@link Schedulers#boundedElastic()}. As in {@link FileServiceImpl}, files are resolved against
+ * {@code src/main/resources/}, and I/O errors are logged and turned into an empty result.
+ */
+public class AsyncFileServiceImpl implements FileService {
+
+	private static final Logger log = LoggerFactory.getLogger(AsyncFileServiceImpl.class);
+	private static final Path PATH = Path.of("src/main/resources/");
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	@Override
+	public Mono<String> read(String fileName) {
+		return readStream(fileName)
+				.collect(Utf8ChunkDecoder::new, Utf8ChunkDecoder::append)
+				.map(Utf8ChunkDecoder::finish)
+				.doFirst(() -> log.info("Reading from file {}", fileName))
+				.onErrorResume(IOException.class, e -> {
+					log.error("An error occurred while reading file : {}, details: {}", fileName, e.getMessage());
+					return Mono.empty();
+				});
+	}
+
+	@Override
+	public Mono<Void> write(String fileName, String content) {
+		return Mono.using(() -> openForWriting(PATH.resolve(fileName)),
+						  channel -> writeChunks(channel, encode(content)),
+						  this::closeChannel)
+				.then()
+				.doFirst(() -> log.info("Writing to file {}", fileName))
+				.onErrorResume(IOException.class, e -> {
+					log.error("An error occurred while writing file : {}, details: {}", fileName, e.getMessage());
+					return Mono.empty();
+				});
+	}
+
+	@Override
+	public Mono<Void> delete(String fileName) {
+		return Mono.<Void>fromCallable(() -> {
+					log.info("Deleting file {}", fileName);
+					Files.delete(PATH.resolve(fileName));
+					return null;
+				})
+				.subscribeOn(Schedulers.boundedElastic())
+				.onErrorResume(IOException.class, e -> {
+					log.error("An error occurred while deleting file : {}, details: {}", fileName, e.getMessage());
+					return Mono.empty();
+				});
+	}
+
+	/**
+	 * Streams the content of a file as chunks of at most 64 KB, reading the next chunk only once the previous one
+	 * has been emitted. The channel is closed on completion, error or cancellation.
+	 *
+	 * @param fileName the name of the file, relative to the resources directory
+	 * @return a Flux emitting the bytes of the file in order
+	 */
+	@Override
+	public Flux<ByteBuffer> readStream(String fileName) {
+		Path path = PATH.resolve(fileName);
+		return Flux.using(() -> AsynchronousFileChannel.open(path, StandardOpenOption.READ),
+						  this::readChunks,
+						  this::closeChannel)
+				.doOnError(e -> log.error("An error occurred while streaming file : {}, details: {}", fileName,
+										  e.getMessage()));
+	}
+
+	/**
+	 * Writes the chunks to a file with one asynchronous write in flight at a time, replacing any previous content.
+	 *
+	 * @param fileName the name of the file, relative to the resources directory
+	 * @param content  the chunks to write, in order
+	 * @return a Mono completing once every chunk has been written
+	 */
+	@Override
+	public Mono<Void> writeStream(String fileName, Flux<ByteBuffer> content) {
+		Path path = PATH.resolve(fileName);
+		return Mono.using(() -> openForWriting(path),
+						  channel -> writeChunks(channel, content),
+						  this::closeChannel)
+				.doOnNext(written -> log.info("Streamed {} bytes to file {}", written, fileName))
+				.doOnError(e -> log.error("An error occurred while streaming to file : {}, details: {}", fileName,
+										  e.getMessage()))
+				.then();
+	}
+
+	private Flux<ByteBuffer> readChunks(AsynchronousFileChannel channel) {
+		return Mono.fromCallable(channel::size)
+				.flatMapMany(size -> Flux.<Long, Long>generate(() -> 0L, (position, sink) -> {
+					if (position >= size) {
+						sink.complete();
+					} else {
+						sink.next(position);
+					}
+					return position + CHUNK_SIZE;
+				}))
+				.concatMap(position -> readFully(channel, ByteBuffer.allocate(CHUNK_SIZE), position), 1)
+				.filter(ByteBuffer::hasRemaining);
+	}
+
+	/**
+	 * Writes the given chunks one after another from the start of the channel, requesting the next chunk only once
+	 * the previous one has been fully written.
+	 *
+	 * @return a Mono emitting the total number of bytes written
+	 */
+	private Mono<Long> writeChunks(AsynchronousFileChannel channel, Flux<ByteBuffer> chunks) {
+		AtomicLong position = new AtomicLong();
+		return chunks
+				.concatMap(chunk -> {
+					int length = chunk.remaining();
+					return writeFully(channel, chunk, position.getAndAdd(length)).thenReturn(length);
+				}, 1)
+				.then(Mono.fromSupplier(position::get));
+	}
+
+	private AsynchronousFileChannel openForWriting(Path path) throws IOException {
+		return AsynchronousFileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+											StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	private void closeChannel(AsynchronousFileChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			log.warn("Failed to close file channel", e);
+		}
+	}
+
+	/**
+	 * Fills the buffer from the given position, issuing further reads after short reads until the buffer is full or
+	 * the end of the file is reached. The buffer is emitted flipped, ready to be read.
+	 */
+	private Mono<ByteBuffer> readFully(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+		return Mono.create(sink -> channel.read(buffer, position, sink, new CompletionHandler<>() {
+			@Override
+			public void completed(Integer read, MonoSink<ByteBuffer> sink) {
+				if (read < 0 || !buffer.hasRemaining()) {
+					sink.success(buffer.flip());
+				} else {
+					channel.read(buffer, position + buffer.position(), sink, this);
+				}
+			}
+
+			@Override
+			public void failed(Throwable throwable, MonoSink<ByteBuffer> sink) {
+				sink.error(throwable);
+			}
+		}));
+	}
+
+	/**
+	 * Writes the remaining bytes of the buffer at the given position, issuing further writes after short writes.
+	 */
+	private Mono<Void> writeFully(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+		return Mono.create(sink -> channel.write(buffer, position, sink, new CompletionHandler<>() {
+			private long written = 0;
+
+			@Override
+			public void completed(Integer count, MonoSink<Void> sink) {
+				written += count;
+				if (buffer.hasRemaining()) {
+					channel.write(buffer, position + written, sink, this);
+				} else {
+					sink.success();
+				}
+			}
+
+			@Override
+			public void failed(Throwable throwable, MonoSink<Void> sink) {
+				sink.error(throwable);
+			}
+		}));
+	}
+
+	/**
+	 * Encodes the content as UTF-8 chunks. As with {@link Files#writeString}, content that is not valid UTF-16, such as
+	 * a lone surrogate, fails with a {@link java.nio.charset.CharacterCodingException} instead of being written.
+	 */
+	private Flux<ByteBuffer> encode(String content) {
+		return Flux.defer(() -> {
+			CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+					.onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT);
+			CharBuffer chars = CharBuffer.wrap(content);
+			return Flux.generate(() -> Encoding.ENCODING, (state, sink) -> {
+				if (state == Encoding.DONE) {
+					sink.complete();
+					return state;
+				}
+				ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+				Encoding next = state;
+				// the whole content is available, so every call marks the end of the input
+				CoderResult result = state == Encoding.ENCODING
+						? encoder.encode(chars, chunk, true)
+						: CoderResult.UNDERFLOW;
+				if (result.isUnderflow()) {
+					result = encoder.flush(chunk);
+					next = result.isUnderflow() ? Encoding.DONE : Encoding.FLUSHING;
+				}
+				if (result.isError()) {
+					try {
+						result.throwException();
+					} catch (IOException e) {
+						sink.error(e);
+					}
+					return Encoding.DONE;
+				}
+				sink.next(chunk.flip());
+				return next;
+			});
+		});
+	}
+
+	private enum Encoding {
+		ENCODING,
+		FLUSHING,
+		DONE
+	}
+
+	/**
+	 * Decodes UTF-8 chunks into a single String, carrying over the bytes of a character that is split between two
+	 * chunks.
+	 */
+	private static final class Utf8ChunkDecoder {
+
+		private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		private final StringBuilder content = new StringBuilder();
+		private final ByteBuffer carry = ByteBuffer.allocate(8);
+		private CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+
+		void append(ByteBuffer chunk) {
+			if (carry.position() > 0) {
+				while (carry.hasRemaining() && chunk.hasRemaining()) {
+					carry.put(chunk.get());
+					carry.flip();
+					decode(carry, false);
+					carry.compact();
+					if (carry.position() == 0) {
+						break;
+					}
+				}
+			}
+			decode(chunk, false);
+			carry.put(chunk);
+		}
+
+		String finish() {
+			carry.flip();
+			decode(carry, true);
+			decoder.flush(chars.clear());
+			content.append(chars.flip());
+			return content.toString();
+		}
+
+		private void decode(ByteBuffer bytes, boolean endOfInput) {
+			if (chars.capacity() < bytes.remaining()) {
+				chars = CharBuffer.allocate(bytes.remaining());
+			}
+			chars.clear();
+			decoder.decode(bytes, chars, endOfInput);
+			content.append(chars.flip());
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package org.ablonewolf.services.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An in-memory ledger of account balances, kept in primitive arrays so that neither account IDs nor balances are
+ * ever boxed.
+ * <p>
+ * Layout:<br>
+ * - Account IDs are mapped to balance slots by an open-addressing hash table with linear probing, where every entry
+ * packs the account ID and its slot into a single {@code long} of an {@link AtomicLongArray}. A lookup is a few
+ * volatile reads without locking or allocation.<br>
+ * - Balances live in fixed-size {@link AtomicLongArray} chunks that are never moved or copied, so growing the ledger
+ * cannot lose a concurrent update, and every balance change is a single atomic operation.<br>
+ * - Opening an account is rare compared to balance operations and is serialized by a lock. The hash table is only
+ * rebuilt when it gets too full, and the new table is published with a single volatile write.
+ * <p>
+ * Operations:<br>
+ * - {@link #credit} and {@link #debit} change a balance atomically; a debit never takes a balance below zero.<br>
+ * - {@link #compareAndSet} replaces a balance only if it still has the expected value.<br>
+ * - {@link #transfer} debits one account and credits another. The money is briefly in neither account, so a
+ * concurrent {@link #snapshot()} may see a lower total, but it is never lost or created.<br>
+ * - {@link #snapshot()} copies all balances into primitive arrays in a single pass.
+ */
+public class BalanceLedger {
+
+	private static final int CHUNK_BITS = 12;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final long EMPTY = 0;
+
+	private volatile AtomicLongArray table = new AtomicLongArray(64);
+	private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+	private volatile int accounts = 0;
+
+	/**
+	 * The balances of all accounts, with {@code balances[i]} belonging to {@code accountIds[i]}. Every balance is read
+	 * atomically, but not all of them at the same instant.
+	 */
+	public record Snapshot(int[] accountIds,
+						   long[] balances) {
+
+		public long total() {
+			long total = 0;
+			for (long balance : balances) {
+				total += balance;
+			}
+			return total;
+		}
+	}
+
+	/**
+	 * Opens an account with the given balance.
+	 *
+	 * @return {@code true} if the account was opened, {@code false} if it already exists
+	 */
+	public synchronized boolean open(int accountId, long initialBalance) {
+		if (initialBalance < 0) {
+			throw new IllegalArgumentException("Initial balance must not be negative, but was " + initialBalance);
+		}
+		if (slotOf(accountId) >= 0) {
+			return false;
+		}
+
+		int slot = accounts;
+		if (slot >> CHUNK_BITS >= chunks.length) {
+			AtomicLongArray[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+			grown[chunks.length] = new AtomicLongArray(CHUNK_SIZE);
+			chunks = grown;
+		}
+		chunks[slot >> CHUNK_BITS].set(slot & (CHUNK_SIZE - 1), initialBalance);
+
+		if ((slot + 1) * 2 > table.length()) {
+			table = rehash(table, table.length() * 2);
+		}
+		insert(table, accountId, slot);
+		accounts = slot + 1;
+		return true;
+	}
+
+	public boolean contains(int accountId) {
+		return slotOf(accountId) >= 0;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if there is no such account
+	 */
+	public long balance(int accountId) {
+		int slot = requireSlot(accountId);
+		return chunks[slot >> CHUNK_BITS].get(slot & (CHUNK_SIZE - 1));
+	}
+
+	/**
+	 * Adds the amount to the balance of the account.
+	 *
+	 * @return the new balance
+	 * @throws IllegalArgumentException if there is no such account or the amount is negative
+	 */
+	public long credit(int accountId, long amount) {
+		requireNonNegative(amount);
+		int slot = requireSlot(accountId);
+		return chunks[slot >> CHUNK_BITS].addAndGet(slot & (CHUNK_SIZE - 1), amount);
+	}
+
+	/**
+	 * Subtracts the amount from the balance of the account, unless the balance is lower than the amount.
+	 *
+	 * @return {@code true} if the balance was debited, {@code false} if funds were insufficient
+	 * @throws IllegalArgumentException if there is no such account or the amount is negative
+	 */
+	public boolean debit(int accountId, long amount) {
+		requireNonNegative(amount);
+		int slot = requireSlot(accountId);
+		AtomicLongArray chunk = chunks[slot >> CHUNK_BITS];
+		int index = slot & (CHUNK_SIZE - 1);
+		long balance;
+		do {
+			balance = chunk.get(index);
+			if (balance < amount) {
+				return false;
+			}
+		} while (!chunk.compareAndSet(index, balance, balance - amount));
+		return true;
+	}
+
+	/**
+	 * Sets the balance of the account to the new value if it currently has the expected value.
+	 *
+	 * @return {@code true} if the balance was replaced
+	 * @throws IllegalArgumentException if there is no such account
+	 */
+	public boolean compareAndSet(int accountId, long expectedBalance, long newBalance) {
+		int slot = requireSlot(accountId);
+		return chunks[slot >> CHUNK_BITS].compareAndSet(slot & (CHUNK_SIZE - 1), expectedBalance, newBalance);
+	}
+
+	/**
+	 * Moves the amount from one account to another, unless the source account has insufficient funds.
+	 *
+	 * @return {@code true} if the amount was transferred
+	 * @throws IllegalArgumentException if either account does not exist or the amount is negative
+	 */
+	public boolean transfer(int fromAccountId, int toAccountId, long amount) {
+		requireSlot(toAccountId);
+		if (!debit(fromAccountId, amount)) {
+			return false;
+		}
+		credit(toAccountId, amount);
+		return true;
+	}
+
+	public Snapshot snapshot() {
+		// every account below the count read first is in the table and chunks read afterwards
+		int count = accounts;
+		AtomicLongArray currentTable = table;
+		AtomicLongArray[] currentChunks = chunks;
+		int[] accountIds = new int[count];
+		long[] balances = new long[count];
+
+		for (int i = 0; i < currentTable.length(); i++) {
+			long entry = currentTable.get(i);
+			if (entry != EMPTY) {
+				int slot = slotOfEntry(entry);
+				if (slot < count) {
+					accountIds[slot] = accountIdOfEntry(entry);
+					balances[slot] = currentChunks[slot >> CHUNK_BITS].get(slot & (CHUNK_SIZE - 1));
+				}
+			}
+		}
+		return new Snapshot(accountIds, balances);
+	}
+
+	public int size() {
+		return accounts;
+	}
+
+	/**
+	 * Returns the slot of the account, or -1 if there is no such account.
+	 */
+	private int slotOf(int accountId) {
+		AtomicLongArray currentTable = table;
+		int mask = currentTable.length() - 1;
+		for (int i = hash(accountId) & mask; ; i = (i + 1) & mask) {
+			long entry = currentTable.get(i);
+			if (entry == EMPTY) {
+				return -1;
+			}
+			if (accountIdOfEntry(entry) == accountId) {
+				return slotOfEntry(entry);
+			}
+		}
+	}
+
+	private int requireSlot(int accountId) {
+		int slot = slotOf(accountId);
+		if (slot < 0) {
+			throw new IllegalArgumentException("No account with ID " + accountId);
+		}
+		return slot;
+	}
+
+	private static void requireNonNegative(long amount) {
+		if (amount < 0) {
+			throw new IllegalArgumentException("Amount must not be negative, but was " + amount);
+		}
+	}
+
+	private static AtomicLongArray rehash(AtomicLongArray source, int capacity) {
+		AtomicLongArray rehashed = new AtomicLongArray(capacity);
+		for (int i = 0; i < source.length(); i++) {
+			long entry = source.get(i);
+			if (entry != EMPTY) {
+				insert(rehashed, accountIdOfEntry(entry), slotOfEntry(entry));
+			}
+		}
+		return rehashed;
+	}
+
+	private static void insert(AtomicLongArray target, int accountId, int slot) {
+		int mask = target.length() - 1;
+		int i = hash(accountId) & mask;
+		while (target.get(i) != EMPTY) {
+			i = (i + 1) & mask;
+		}
+		target.set(i, (long) accountId << 32 | (slot + 1L));
+	}
+
+	/**
+	 * Spreads the bits of the account ID, so that sequential IDs do not form long probe sequences.
+	 */
+	private static int hash(int accountId) {
+		int h = accountId * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private static int accountIdOfEntry(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	private static int slotOfEntry(long entry) {
+		return (int) entry - 1;
+	}
+}
@@ -0,0 +1,64 @@
+package org.ablonewolf.services.impl;
+
+import org.ablonewolf.common.HttpClientConfig;
+import org.ablonewolf.common.MicroBatcher;
+import org.ablonewolf.model.ProductInfo;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * An {@link ExternalServiceClient} that answers {@link #getProductInfo(Integer)} through the bulk products endpoint
+ * instead of three requests per product.
+ * <p>
+ * Lookups made concurrently by any number of callers are collected by a {@link MicroBatcher} for a short window, or
+ * until a maximum number of product IDs is reached, and resolved with one call to
+ * {@link #getProductInfos(java.util.Collection)}. The response is then split back to each caller's {@link Mono}.
+ * <p>
+ * The client keeps a subscription to its batching queue open, and should be disposed once no longer needed.
+ */
+public class BatchingExternalServiceClient extends ExternalServiceClient implements Disposable {
+
+	private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+	private static final Duration DEFAULT_MAX_WAIT = Duration.ofMillis(10);
+	private static final int DEFAULT_MAX_CONCURRENT_BATCHES = 8;
+
+	private final MicroBatcher<Integer, ProductInfo> productInfoBatcher;
+
+	public BatchingExternalServiceClient() {
+		this(HttpClientConfig.fromSystemProperties(), DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_WAIT,
+			 DEFAULT_MAX_CONCURRENT_BATCHES);
+	}
+
+	/**
+	 * @param config               the configuration of the underlying HTTP client
+	 * @param maxBatchSize         the maximum number of product IDs sent in one request
+	 * @param maxWait              how long a lookup may wait for its batch to fill up
+	 * @param maxConcurrentBatches the maximum number of bulk requests in flight
+	 */
+	public BatchingExternalServiceClient(HttpClientConfig config, int maxBatchSize, Duration maxWait,
+										 int maxConcurrentBatches) {
+		super(config);
+		// the batches are loaded through a separate, fully constructed client sharing the same HTTP client, so that
+		// the loader does not refer to this instance before its construction has finished
+		var origin = new ExternalServiceClient(config);
+		this.productInfoBatcher = new MicroBatcher<>(maxBatchSize, maxWait, maxConcurrentBatches,
+													 origin::getProductInfos);
+	}
+
+	@Override
+	public Mono<ProductInfo> getProductInfo(Integer productId) {
+		return this.offload(productInfoBatcher.load(productId));
+	}
+
+	@Override
+	public void dispose() {
+		productInfoBatcher.dispose();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return productInfoBatcher.isDisposed();
+	}
+}
@@ -0,0 +1,80 @@
+package org.ablonewolf.services.impl;
+
+import org.ablonewolf.common.HttpClientConfig;
+import org.ablonewolf.common.ReactiveCache;
+import org.ablonewolf.model.ProductInfo;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * An {@link ExternalServiceClient} that caches product lookups, so repeated lookups of the same products do not reach
+ * the external service every time.
+ * <p>
+ * The name, price, review and combined product info of a product are each cached in their own
+ * {@link ReactiveCache}, which means:<br>
+ * - concurrent lookups of the same product share a single upstream call;<br>
+ * - results are kept for a limited time in a cache bounded by the number of products;<br>
+ * - results of frequently requested products are refreshed in the background before they expire, so callers are
+ * answered from the cache instead of waiting on the external service.
+ * <p>
+ * A cache miss on {@link #getProductInfo(Integer)} goes through the name, price and review caches, so it only calls
+ * the external service for the parts that are not cached yet. Streams are not cached.
+ */
+public class CachingExternalServiceClient extends ExternalServiceClient {
+
+	private static final int DEFAULT_MAX_SIZE = 10_000;
+	private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+	private static final Duration DEFAULT_REFRESH_AFTER = Duration.ofMinutes(4);
+
+	private final ReactiveCache<Integer, String> productNames;
+	private final ReactiveCache<Integer, String> productPrices;
+	private final ReactiveCache<Integer, String> productReviews;
+	private final ReactiveCache<Integer, ProductInfo> productInfos;
+
+	public CachingExternalServiceClient() {
+		this(HttpClientConfig.fromSystemProperties(), DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE, DEFAULT_REFRESH_AFTER);
+	}
+
+	/**
+	 * @param config       the configuration of the underlying HTTP client
+	 * @param maxSize      the maximum number of products kept in each cache
+	 * @param timeToLive   how long a cached result may be served
+	 * @param refreshAfter how long after loading a result is refreshed in the background
+	 */
+	public CachingExternalServiceClient(HttpClientConfig config, int maxSize, Duration timeToLive,
+										Duration refreshAfter) {
+		super(config);
+		// the caches load through a separate, fully constructed client sharing the same HTTP client, so that no
+		// loader refers to this instance before its construction has finished
+		var origin = new ExternalServiceClient(config);
+		var names = new ReactiveCache<>(maxSize, timeToLive, refreshAfter, origin::fetchProductName);
+		var prices = new ReactiveCache<>(maxSize, timeToLive, refreshAfter, origin::getProductPrice);
+		var reviews = new ReactiveCache<>(maxSize, timeToLive, refreshAfter, origin::getProductReview);
+		this.productNames = names;
+		this.productPrices = prices;
+		this.productReviews = reviews;
+		this.productInfos = new ReactiveCache<>(maxSize, timeToLive, refreshAfter, productId ->
+				combineProductInfo(names.get(productId), prices.get(productId), reviews.get(productId)));
+	}
+
+	@Override
+	protected Mono<String> fetchProductName(Integer productId) {
+		return productNames.get(productId);
+	}
+
+	@Override
+	protected Mono<String> getProductPrice(Integer productId) {
+		return productPrices.get(productId);
+	}
+
+	@Override
+	protected Mono<String> getProductReview(Integer productId) {
+		return productReviews.get(productId);
+	}
+
+	@Override
+	public Mono<ProductInfo> getProductInfo(Integer productId) {
+		return productInfos.get(productId);
+	}
+}
@@ -1,44 +1,106 @@
 package org.ablonewolf.services.impl;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import org.ablonewolf.common.AbstractHttpClient;
+import org.ablonewolf.common.HedgingPolicy;
+import org.ablonewolf.common.HttpClientConfig;
+import org.ablonewolf.common.RequestHedger;
+import org.ablonewolf.common.StreamFrameDecoder;
+import org.ablonewolf.common.StreamFrameDecoder.Framing;
 import org.ablonewolf.model.ProductInfo;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * an external service client to communicate with the external service and consume its APIs
+ * <p>
+ * Single-value lookups can optionally be hedged with a {@link HedgingPolicy}, in which case every endpoint tracks its
+ * own latencies through a separate {@link RequestHedger}.
+ * <p>
+ * Execution:
+ * All requests are non-blocking, so by default results are delivered on the Netty event loop that received them,
+ * without any thread handoff. A caller whose downstream work blocks must not run it on the event loop, and should
+ * create the client with an offload {@link Scheduler}, e.g. {@link Schedulers#boundedElastic()}. Results are then
+ * published on that scheduler once per public call; {@link #getProductInfo(Integer)} combines its three lookups on
+ * the event loop and hands the combined result over only once.
  */
 public class ExternalServiceClient extends AbstractHttpClient {
 
+	private final HedgingPolicy hedgingPolicy;
+	private final Scheduler offloadScheduler;
+	private final Map<String, RequestHedger> hedgers = new ConcurrentHashMap<>();
+
+	public ExternalServiceClient() {
+		super();
+		this.hedgingPolicy = null;
+		this.offloadScheduler = null;
+	}
+
+	public ExternalServiceClient(HttpClientConfig config) {
+		this(config, null);
+	}
+
+	public ExternalServiceClient(HttpClientConfig config, HedgingPolicy hedgingPolicy) {
+		this(config, hedgingPolicy, null);
+	}
+
+	/**
+	 * @param config           the HTTP client settings
+	 * @param hedgingPolicy    the policy used to hedge slow product lookups, or {@code null} to never hedge
+	 * @param offloadScheduler the scheduler on which results are published for blocking downstream work, or
+	 *                         {@code null} to stay on the event loop
+	 */
+	public ExternalServiceClient(HttpClientConfig config, HedgingPolicy hedgingPolicy, Scheduler offloadScheduler) {
+		super(config);
+		this.hedgingPolicy = hedgingPolicy;
+		this.offloadScheduler = offloadScheduler;
+	}
+
 	public Mono<String> getProductName(Integer productId) {
-		String uri = String.format("/demo01/product/%d", productId);
-		return this.getSingleAPIResponse(uri);
+		return this.offload(this.fetchProductName(productId));
 	}
 
 	public Flux<String> getStreamOfNames() {
 		String uri = "/demo02/name/stream";
 
-		return this.getStreamOfAPIResponses(uri)
-				.publishOn(Schedulers.boundedElastic());
+		return this.offload(this.getStreamOfAPIResponses(uri, message -> message.toString(StandardCharsets.UTF_8)));
 	}
 
 	public Flux<Integer> getPriceChanges() {
 		String uri = "/demo02/price/stream";
 
-		return this.getStreamOfAPIResponses(uri)
-				.map(Integer::parseInt)
-				.publishOn(Schedulers.boundedElastic());
+		return this.offload(this.getStreamOfAPIResponses(uri, StreamFrameDecoder::parseInt));
 	}
 
-	private Mono<String> getProductPrice(Integer productId) {
+	/**
+	 * Looks up the name of a product without offloading, for use within other lookups.
+	 */
+	protected Mono<String> fetchProductName(Integer productId) {
+		String uri = String.format("/demo01/product/%d", productId);
+		return this.getSingleAPIResponse("name", uri);
+	}
+
+	protected Mono<String> getProductPrice(Integer productId) {
 		String uri = String.format("/demo05/price/%d", productId);
-		return this.getSingleAPIResponse(uri);
+		return this.getSingleAPIResponse("price", uri);
 	}
 
-	private Mono<String> getProductReview(Integer productId) {
+	protected Mono<String> getProductReview(Integer productId) {
 		String uri = String.format("/demo05/review/%d", productId);
-		return this.getSingleAPIResponse(uri);
+		return this.getSingleAPIResponse("review", uri);
 	}
 
 	/**
@@ -49,25 +111,110 @@ public class ExternalServiceClient extends AbstractHttpClient {
 	 * @return a {@code Mono<ProductInfo>} containing the combined product information (name, price, review)
 	 */
 	public Mono<ProductInfo> getProductInfo(Integer productId) {
-		return Mono.zip(this.getProductName(productId), this.getProductPrice(productId),
-						this.getProductReview(productId))
+		Mono<ProductInfo> productInfo = combineProductInfo(this.fetchProductName(productId),
+														   this.getProductPrice(productId),
+														   this.getProductReview(productId));
+		return this.offload(productInfo);
+	}
+
+	/**
+	 * Combines the separately looked up name, price and review of a product into a single ProductInfo object.
+	 */
+	protected static Mono<ProductInfo> combineProductInfo(Mono<String> name, Mono<String> price, Mono<String> review) {
+		return Mono.zip(name, price, review)
 				.map(response ->
 							 new ProductInfo(response.getT1(), response.getT2(), response.getT3()));
 	}
 
+	/**
+	 * Retrieves the product information of several products with a single request to the bulk endpoint, which
+	 * answers with one tab-separated {@code id, name, price, review} line per product.
+	 *
+	 * @param productIds the unique identifiers of the products whose information is to be fetched
+	 * @return a {@code Mono} of the product information keyed by product ID; unknown products are left out
+	 */
+	public Mono<Map<Integer, ProductInfo>> getProductInfos(Collection<Integer> productIds) {
+		String uri = productIds.stream()
+				.map(String::valueOf)
+				.collect(Collectors.joining(",", "/demo05/products?ids=", ""));
+
+		return this.httpClient.get()
+				.uri(uri)
+				.responseSingle((response, content) -> checkStatus(uri, response)
+						.then(content.asString()))
+				.map(ExternalServiceClient::parseProductInfos);
+	}
+
+	/**
+	 * Publishes the result on the offload scheduler, if the client has one.
+	 */
+	protected <T> Mono<T> offload(Mono<T> result) {
+		return Objects.isNull(offloadScheduler) ? result : result.publishOn(offloadScheduler);
+	}
+
+	protected <T> Flux<T> offload(Flux<T> result) {
+		return Objects.isNull(offloadScheduler) ? result : result.publishOn(offloadScheduler);
+	}
+
+	private static Map<Integer, ProductInfo> parseProductInfos(String response) {
+		Map<Integer, ProductInfo> productInfos = new HashMap<>();
+		response.lines()
+				.filter(line -> !line.isBlank())
+				.map(line -> line.split("\t", 4))
+				.filter(fields -> fields.length == 4)
+				.forEach(fields -> productInfos.put(Integer.parseInt(fields[0]),
+													new ProductInfo(fields[1], fields[2], fields[3])));
+		return productInfos;
+	}
+
+	/**
+	 * Gets a single response, hedged with the hedger of the given endpoint when a hedging policy is configured.
+	 */
+	private Mono<String> getSingleAPIResponse(String endpoint, String path) {
+		if (Objects.isNull(hedgingPolicy)) {
+			return this.getSingleAPIResponse(path);
+		}
+		return hedgers.computeIfAbsent(endpoint, key -> hedgingPolicy.newHedger())
+				.hedge(() -> this.getSingleAPIResponse(path));
+	}
+
 	private Mono<String> getSingleAPIResponse(String path) {
 		return this.httpClient.get()
 				.uri(path)
-				.responseContent()
-				.asString()
-				.next()
-				.publishOn(Schedulers.boundedElastic());
+				.responseSingle((response, content) -> checkStatus(path, response)
+						.then(content.asString()));
 	}
 
-	private Flux<String> getStreamOfAPIResponses(String path) {
+	/**
+	 * Streams the messages of a response, framed by line or, for a {@code text/event-stream} response, by event, so
+	 * that messages are never split or merged by network chunk boundaries.
+	 */
+	private <T> Flux<T> getStreamOfAPIResponses(String path, Function<ByteBuf, T> mapper) {
 		return this.httpClient.get()
 				.uri(path)
-				.responseContent()
-				.asString();
+				.response((response, content) -> {
+					var framing = Framing.forContentType(response.responseHeaders().get(HttpHeaderNames.CONTENT_TYPE));
+					return checkStatus(path, response)
+							.thenMany(StreamFrameDecoder.decode(content, framing, mapper));
+				});
+	}
+
+	/**
+	 * Fails with an {@link UnexpectedStatusException} unless the response has a 2xx status.
+	 */
+	private static Mono<Void> checkStatus(String path, HttpClientResponse response) {
+		int status = response.status().code();
+		return status >= 200 && status < 300
+				? Mono.empty()
+				: Mono.error(new UnexpectedStatusException(path, status));
+	}
+
+	public static class UnexpectedStatusException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public UnexpectedStatusException(String path, int status) {
+			super("Request to %s failed with status %d".formatted(path, status));
+		}
 	}
 }
@@ -0,0 +1,73 @@
+package org.ablonewolf.services.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A contiguous byte range {@code [start, end)} of a file whose boundaries fall on line boundaries, so that
+ * each range can be read independently of the others without splitting a line in two.
+ *
+ * @param start the offset of the first byte of the range, always the beginning of a line
+ * @param end   the offset right after the last byte of the range, either right after a {@code \n} or the file size
+ */
+record FileRange(long start, long end) {
+
+	private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+	/**
+	 * Splits the file into at most {@code parts} ranges of roughly equal size. Each tentative boundary is moved
+	 * forward to just past the next line terminator, so ranges may come out uneven or fewer than requested when
+	 * the file has very long lines or fewer lines than parts. Empty files produce no ranges.
+	 *
+	 * @param path  the path of the file to split
+	 * @param parts the desired number of ranges, at least 1
+	 * @return the ranges in file order
+	 * @throws IOException if the file could not be read
+	 */
+	static List<FileRange> split(Path path, int parts) throws IOException {
+		if (parts < 1) {
+			throw new IllegalArgumentException("parts must be at least 1, but was " + parts);
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long targetSize = Math.max(1, size / parts);
+			List<FileRange> ranges = new ArrayList<>(parts);
+			ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+			long start = 0;
+			while (start < size) {
+				long end = ranges.size() == parts - 1
+						? size
+						: alignToNextLine(channel, buffer, Math.min(size, start + targetSize) - 1, size);
+				ranges.add(new FileRange(start, end));
+				start = end;
+			}
+			return ranges;
+		}
+	}
+
+	private static long alignToNextLine(FileChannel channel, ByteBuffer buffer, long offset, long size)
+			throws IOException {
+		long position = offset;
+		while (position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+}
@@ -1,5 +1,6 @@
 package org.ablonewolf.services.impl;
 
+import org.ablonewolf.common.Compression;
 import org.ablonewolf.services.FileReaderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,6 +8,8 @@ import reactor.core.publisher.Flux;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
@@ -20,6 +23,20 @@ import java.util.Objects;
 public class FileReaderServiceUsingFluxCreate implements FileReaderService {
 
 	private static final Logger log = LoggerFactory.getLogger(FileReaderServiceUsingFluxCreate.class);
+	private final Compression compression;
+
+	public FileReaderServiceUsingFluxCreate() {
+		this(Compression.NONE);
+	}
+
+	/**
+	 * Creates a reader for files compressed with the given format, which are decompressed while being read.
+	 *
+	 * @param compression the format the files were compressed with
+	 */
+	public FileReaderServiceUsingFluxCreate(Compression compression) {
+		this.compression = compression;
+	}
 
 	/**
 	 * Reads the content of a file located at the given path line by line in a reactive manner.
@@ -79,7 +96,11 @@ public class FileReaderServiceUsingFluxCreate implements FileReaderService {
 
 	protected BufferedReader openFile(Path path) throws IOException {
 		log.info("Opening file from path: {}", path);
-		return Files.newBufferedReader(path);
+		if (compression.format() == Compression.Format.NONE) {
+			return Files.newBufferedReader(path);
+		}
+		return new BufferedReader(new InputStreamReader(compression.decompress(Files.newInputStream(path)),
+														StandardCharsets.UTF_8));
 	}
 
 	protected String readLine(BufferedReader reader) throws IOException {
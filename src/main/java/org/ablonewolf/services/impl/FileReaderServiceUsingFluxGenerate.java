@@ -1,5 +1,6 @@
 package org.ablonewolf.services.impl;
 
+import org.ablonewolf.common.Compression;
 import org.ablonewolf.services.FileReaderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,6 +9,8 @@ import reactor.core.publisher.SynchronousSink;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
@@ -22,6 +25,20 @@ import java.util.Objects;
 public class FileReaderServiceUsingFluxGenerate implements FileReaderService {
 
 	private static final Logger log = LoggerFactory.getLogger(FileReaderServiceUsingFluxGenerate.class);
+	private final Compression compression;
+
+	public FileReaderServiceUsingFluxGenerate() {
+		this(Compression.NONE);
+	}
+
+	/**
+	 * Creates a reader for files compressed with the given format, which are decompressed while being read.
+	 *
+	 * @param compression the format the files were compressed with
+	 */
+	public FileReaderServiceUsingFluxGenerate(Compression compression) {
+		this.compression = compression;
+	}
 
 	/**
 	 * Reads the content of a file at the given path as a reactive stream of lines.
@@ -45,7 +62,11 @@ public class FileReaderServiceUsingFluxGenerate implements FileReaderService {
 	 */
 	protected BufferedReader openFile(Path path) throws IOException {
 		log.info("Opening file from path: {}", path);
-		return Files.newBufferedReader(path);
+		if (compression.format() == Compression.Format.NONE) {
+			return Files.newBufferedReader(path);
+		}
+		return new BufferedReader(new InputStreamReader(compression.decompress(Files.newInputStream(path)),
+														StandardCharsets.UTF_8));
 	}
 
 	/**
@@ -0,0 +1,187 @@
+package org.ablonewolf.services.impl;
+
+import org.ablonewolf.services.FileReaderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.ParallelFlux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link FileReaderService} implementation that maps the file into memory instead of reading it through a
+ * {@link java.io.BufferedReader}, which makes it suitable for inputs that are many gigabytes in size.
+ * <p>
+ * Lines are located by scanning the mapped region for line terminators using a {@link MappedLineReader}, so the
+ * heap footprint does not grow with the size of the file. Like {@link FileReaderServiceUsingFluxCreate}, lines are
+ * emitted from {@link FluxSink#onRequest} and only as many as the subscriber has requested; each request is served
+ * as a single chunk in a drain loop, so re-entrant requests made from {@code onNext} do not recurse into the reader.
+ * <p>
+ * Unlike the other implementations, individual lines are not logged, only the opening and closing of the file.
+ * <p>
+ * Because every mapping is independent, this implementation also reads a file truly in parallel: the file is split
+ * into byte ranges aligned to line boundaries, and each range is read by its own reader on a separate worker.
+ */
+public class FileReaderServiceUsingMemoryMap implements FileReaderService {
+
+	private static final Logger log = LoggerFactory.getLogger(FileReaderServiceUsingMemoryMap.class);
+	private static final int ORDERED_PREFETCH = 1024;
+
+	/**
+	 * Reads the content of a file located at the given path line by line, honoring the demand of the subscriber.
+	 * The file is closed once all lines are read, when an error occurs, or when the subscriber cancels.
+	 *
+	 * @param path the path of the file to be read
+	 * @return a Flux emitting each line of the file as a String
+	 */
+	@Override
+	public Flux<String> read(Path path) {
+		return readLines(path, () -> openFile(path), MappedLineReader::nextLineAsString);
+	}
+
+	/**
+	 * Reads the file line by line like {@link #read(Path)}, but emits each line as a read-only view over the mapped
+	 * region instead of decoding it, so no bytes are copied onto the heap.
+	 * <p>
+	 * Every emitted buffer keeps the mapping of the window it belongs to alive for as long as it is referenced, so
+	 * subscribers should not hold on to more lines than they need; copying a line is the way to retain it.
+	 *
+	 * @param path the path of the file to be read
+	 * @return a Flux emitting each line of the file as a read-only ByteBuffer
+	 */
+	@Override
+	public Flux<ByteBuffer> readBytes(Path path) {
+		return readLines(path, () -> openFile(path), MappedLineReader::nextLine);
+	}
+
+	/**
+	 * Splits the file into byte ranges aligned to line boundaries, one per rail, and reads every range with its own
+	 * mapping on a {@link Schedulers#parallel()} worker. Ranges are handed to the rails one at a time, so each rail
+	 * reads a single range and emits its lines in file order.
+	 *
+	 * @param path        the path of the file to be read
+	 * @param parallelism the number of rails and ranges
+	 * @return a ParallelFlux whose rails each emit the lines of one range
+	 */
+	@Override
+	public ParallelFlux<String> readParallel(Path path, int parallelism) {
+		return splitFile(path, parallelism)
+				.flatMapMany(Flux::fromIterable)
+				.parallel(parallelism, 1)
+				.runOn(Schedulers.parallel(), 1)
+				.flatMap(range -> readRange(path, range));
+	}
+
+	/**
+	 * Reads the ranges of the file concurrently on {@link Schedulers#parallel()} workers, and uses
+	 * {@link Flux#flatMapSequential} to emit them back in file order. Lines of a range that finishes early are
+	 * buffered, up to a bounded prefetch, until all ranges before it have been emitted.
+	 *
+	 * @param path        the path of the file to be read
+	 * @param parallelism the number of ranges the file is split into and read at the same time
+	 * @return a Flux emitting the lines of the file in file order
+	 */
+	@Override
+	public Flux<String> readParallelOrdered(Path path, int parallelism) {
+		return splitFile(path, parallelism)
+				.flatMapMany(Flux::fromIterable)
+				.flatMapSequential(range -> readRange(path, range).subscribeOn(Schedulers.parallel()),
+								   parallelism, ORDERED_PREFETCH);
+	}
+
+	private Flux<String> readRange(Path path, FileRange range) {
+		return readLines(path, () -> {
+			log.info("Mapping range [{}, {}) of file from path: {}", range.start(), range.end(), path);
+			return MappedLineReader.open(path, range);
+		}, MappedLineReader::nextLineAsString);
+	}
+
+	private <T> Flux<T> readLines(Path path, Callable<MappedLineReader> opener, LineExtractor<T> extractor) {
+		return Flux.create(fluxSink -> {
+			MappedLineReader reader;
+			try {
+				reader = opener.call();
+			} catch (Exception e) {
+				fluxSink.error(e);
+				return;
+			}
+
+			// requests and disposal are both handled by whichever thread holds the drain loop, so the reader is
+			// never closed while another thread is still reading lines from it
+			AtomicInteger wip = new AtomicInteger();
+			AtomicBoolean disposed = new AtomicBoolean();
+			Runnable drain = () -> {
+				if (wip.getAndIncrement() != 0) {
+					return;
+				}
+				do {
+					if (disposed.get()) {
+						// wip is left non-zero, so the loop is never entered again
+						closeFile(path, reader);
+						return;
+					}
+					emitRequestedLines(path, reader, extractor, fluxSink);
+				} while (wip.decrementAndGet() != 0);
+			};
+
+			fluxSink.onRequest(n -> drain.run());
+			fluxSink.onDispose(() -> {
+				disposed.set(true);
+				drain.run();
+			});
+		});
+	}
+
+	private Mono<List<FileRange>> splitFile(Path path, int parallelism) {
+		return Mono.fromCallable(() -> FileRange.split(path, parallelism));
+	}
+
+	private MappedLineReader openFile(Path path) throws IOException {
+		log.info("Mapping file from path: {}", path);
+		return MappedLineReader.open(path);
+	}
+
+	private <T> void emitRequestedLines(Path path, MappedLineReader reader, LineExtractor<T> extractor,
+										FluxSink<T> fluxSink) {
+		try {
+			while (fluxSink.requestedFromDownstream() > 0 && !fluxSink.isCancelled()) {
+				T line = extractor.next(reader);
+
+				if (Objects.isNull(line)) {
+					log.info("No lines left for reading in file {}", path);
+					fluxSink.complete();
+					return;
+				}
+				fluxSink.next(line);
+			}
+		} catch (IOException e) {
+			log.error("An error occurred while reading file {}, details: {}", path, e.getMessage());
+			fluxSink.error(e);
+		}
+	}
+
+	private void closeFile(Path path, MappedLineReader reader) {
+		try {
+			reader.close();
+			log.info("File {} closed", path);
+		} catch (IOException e) {
+			log.warn("Failed to close file {}", path, e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface LineExtractor<T> {
+
+		T next(MappedLineReader reader) throws IOException;
+	}
+}
@@ -3,16 +3,21 @@ package org.ablonewolf.services.impl;
 import org.ablonewolf.services.FileService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class FileServiceImpl implements FileService {
 
     private static final Logger log = LoggerFactory.getLogger(FileServiceImpl.class);
     private static final Path PATH = Path.of("src/main/resources/");
+    private static final int CHUNK_SIZE = 64 * 1024;
 
     @Override
     public Mono<String> read(String fileName) {
@@ -50,4 +55,58 @@ public class FileServiceImpl implements FileService {
             }
         });
     }
+
+    @Override
+    public Flux<ByteBuffer> readStream(String fileName) {
+        return Flux.using(() -> {
+                    log.info("Streaming from file {}", fileName);
+                    return FileChannel.open(PATH.resolve(fileName), StandardOpenOption.READ);
+                }, this::readChunks, this::closeChannel)
+                .doOnError(e -> log.error("An error occurred while streaming file : {}, details: {}", fileName,
+                                          e.getMessage()));
+    }
+
+    @Override
+    public Mono<Void> writeStream(String fileName, Flux<ByteBuffer> content) {
+        return Mono.using(() -> {
+                    log.info("Streaming to file {}", fileName);
+                    return FileChannel.open(PATH.resolve(fileName), StandardOpenOption.CREATE,
+                                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                }, channel -> content
+                        .concatMap(chunk -> Mono.fromCallable(() -> writeChunk(channel, chunk)), 1)
+                        .then(), this::closeChannel)
+                .doOnError(e -> log.error("An error occurred while streaming to file : {}, details: {}", fileName,
+                                          e.getMessage()));
+    }
+
+    private Flux<ByteBuffer> readChunks(FileChannel channel) {
+        return Flux.generate(sink -> {
+            try {
+                ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+                if (channel.read(chunk) < 0) {
+                    sink.complete();
+                } else {
+                    sink.next(chunk.flip());
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+        });
+    }
+
+    private int writeChunk(FileChannel channel, ByteBuffer chunk) throws IOException {
+        int written = 0;
+        while (chunk.hasRemaining()) {
+            written += channel.write(chunk);
+        }
+        return written;
+    }
+
+    private void closeChannel(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close file channel", e);
+        }
+    }
 }
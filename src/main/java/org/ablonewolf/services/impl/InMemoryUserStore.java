@@ -0,0 +1,48 @@
+package org.ablonewolf.services.impl;
+
+import org.ablonewolf.model.User;
+import org.ablonewolf.services.UserStore;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link UserStore} keeping users in a {@link ConcurrentHashMap} keyed by username.
+ */
+public class InMemoryUserStore implements UserStore {
+
+	private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
+
+	public InMemoryUserStore(Map<String, Integer> userIds) {
+		this.userIds.putAll(userIds);
+	}
+
+	public void save(User user) {
+		userIds.put(user.username(), user.id());
+	}
+
+	@Override
+	public Mono<Map<String, Integer>> findIdsByUsernames(Collection<String> usernames) {
+		return Mono.fromSupplier(() -> {
+			Map<String, Integer> found = new HashMap<>();
+			for (String username : usernames) {
+				Integer userId = userIds.get(username);
+				if (Objects.nonNull(userId)) {
+					found.put(username, userId);
+				}
+			}
+			return found;
+		});
+	}
+
+	@Override
+	public Flux<User> findAll() {
+		return Flux.defer(() -> Flux.fromIterable(userIds.entrySet()))
+				.map(entry -> new User(entry.getValue(), entry.getKey()));
+	}
+}
@@ -0,0 +1,146 @@
+package org.ablonewolf.services.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Reads lines from a file by mapping it into memory with {@link FileChannel#map} and scanning the mapped
+ * region for line terminators directly.
+ * <p>
+ * The file is mapped through a sliding window of a fixed size, so the off-heap footprint stays bounded no
+ * matter how large the file is, and nothing but the decoded lines is ever copied onto the heap. A line that
+ * straddles two windows causes the window to be remapped from the start of that line; a single line longer
+ * than the window doubles the window size until it fits.
+ * <p>
+ * Both {@code \n} and {@code \r\n} line endings are recognised, and a trailing line without a terminator is
+ * still returned. Lines are decoded as UTF-8, matching {@link java.nio.file.Files#newBufferedReader(Path)}.
+ * <p>
+ * Thread Safety:
+ * A reader keeps its position as mutable state and must only be used by one thread at a time.
+ */
+class MappedLineReader implements Closeable {
+
+	static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+	private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+	private final FileChannel channel;
+	private final long end;
+	private int windowSize;
+	private long position;
+	private long windowStart;
+	private MappedByteBuffer window;
+	private byte[] scratch = new byte[256];
+
+	MappedLineReader(FileChannel channel, long start, long end, int windowSize) {
+		this.channel = channel;
+		this.position = start;
+		this.end = end;
+		this.windowSize = windowSize;
+	}
+
+	static MappedLineReader open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		return new MappedLineReader(channel, 0, channel.size(), DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Opens a reader over a single range of the file. The range is expected to start at the beginning of a line
+	 * and end right after a line terminator or at the end of the file, as produced by {@link FileRange#split}.
+	 */
+	static MappedLineReader open(Path path, FileRange range) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		return new MappedLineReader(channel, range.start(), range.end(), DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Returns the next line as a read-only view over the mapped region, without its line terminator.
+	 * The returned buffer stays valid after the reader moves on or is closed, but it keeps the whole window it
+	 * points into mapped until it is garbage collected.
+	 *
+	 * @return the next line, or {@code null} once the end of the file has been reached
+	 * @throws IOException if the file could not be mapped
+	 */
+	ByteBuffer nextLine() throws IOException {
+		if (position >= end) {
+			return null;
+		}
+
+		while (true) {
+			if (Objects.isNull(window) || position < windowStart || position >= windowStart + window.limit()) {
+				remap();
+			}
+
+			int from = (int) (position - windowStart);
+			int limit = window.limit();
+
+			for (int i = from; i < limit; i++) {
+				if (window.get(i) == '\n') {
+					position = windowStart + i + 1;
+					return slice(from, i);
+				}
+			}
+
+			if (windowStart + limit >= end) {
+				position = end;
+				return slice(from, limit);
+			}
+
+			if (from == 0) {
+				growWindow();
+			}
+			remap();
+		}
+	}
+
+	/**
+	 * Returns the next line decoded as a UTF-8 String, copying it through a reusable scratch array so the
+	 * only per-line allocation is the String itself.
+	 *
+	 * @return the next line, or {@code null} once the end of the file has been reached
+	 * @throws IOException if the file could not be mapped
+	 */
+	String nextLineAsString() throws IOException {
+		ByteBuffer line = nextLine();
+		if (Objects.isNull(line)) {
+			return null;
+		}
+
+		int length = line.remaining();
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		line.get(scratch, 0, length);
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	private ByteBuffer slice(int from, int lineEnd) {
+		int contentEnd = lineEnd > from && window.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+		return window.slice(from, contentEnd - from).asReadOnlyBuffer();
+	}
+
+	private void remap() throws IOException {
+		long size = Math.min(windowSize, end - position);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		windowStart = position;
+	}
+
+	private void growWindow() throws IOException {
+		if (windowSize >= MAX_WINDOW_SIZE) {
+			throw new IOException("Line at offset %d exceeds the maximum mappable size".formatted(position));
+		}
+		windowSize = (int) Math.min((long) windowSize * 2, MAX_WINDOW_SIZE);
+	}
+}
@@ -0,0 +1,117 @@
+package org.ablonewolf.services.impl;
+
+import org.ablonewolf.model.Order;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An in-memory order store, indexed by order ID and by user ID, that can be written and read concurrently.
+ * <p>
+ * Indexes:<br>
+ * - The primary index maps order IDs to orders in a {@link ConcurrentHashMap}, so lookups never lock and inserts of
+ * different orders rarely contend.<br>
+ * - The per-user index keeps, for every user, an immutable array of the user's orders behind an
+ * {@link AtomicReference}. Reads take the current array without locking, and writes replace it with a
+ * compare-and-set, so a reader always sees a complete list and a user's orders are never copied per read.
+ * <p>
+ * An order is added to the primary index before the per-user index and removed in the opposite order, so a reader
+ * may briefly find an order by ID before finding it among its user's orders, but never the other way round. Orders
+ * of a user are kept in insertion order.
+ */
+public class OrderRepository {
+
+	private static final Order[] NO_ORDERS = new Order[0];
+
+	private final ConcurrentHashMap<Integer, Order> ordersById;
+	private final ConcurrentHashMap<Integer, AtomicReference<Order[]>> ordersByUser;
+	private final AtomicInteger lastOrderId = new AtomicInteger();
+
+	public OrderRepository() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedUsers the number of users the per-user index is sized for up front, avoiding rehashing while
+	 *                      it grows
+	 */
+	public OrderRepository(int expectedUsers) {
+		this.ordersById = new ConcurrentHashMap<>(expectedUsers * 4);
+		this.ordersByUser = new ConcurrentHashMap<>(expectedUsers);
+	}
+
+	/**
+	 * Returns a new order ID, higher than any ID returned or inserted before.
+	 */
+	public int nextOrderId() {
+		return lastOrderId.incrementAndGet();
+	}
+
+	/**
+	 * Adds an order to both indexes.
+	 *
+	 * @return {@code true} if the order was added, {@code false} if an order with the same ID already exists
+	 */
+	public boolean insert(Order order) {
+		if (Objects.nonNull(ordersById.putIfAbsent(order.orderId(), order))) {
+			return false;
+		}
+		lastOrderId.accumulateAndGet(order.orderId(), Math::max);
+
+		var userOrders = ordersByUser.computeIfAbsent(order.userId(), userId -> new AtomicReference<>(NO_ORDERS));
+		userOrders.updateAndGet(orders -> {
+			Order[] updated = Arrays.copyOf(orders, orders.length + 1);
+			updated[orders.length] = order;
+			return updated;
+		});
+		return true;
+	}
+
+	/**
+	 * Removes an order from both indexes.
+	 *
+	 * @return the removed order, or {@code null} if there was no order with the given ID
+	 */
+	public Order remove(int orderId) {
+		Order order = ordersById.get(orderId);
+		if (Objects.isNull(order)) {
+			return null;
+		}
+
+		var userOrders = ordersByUser.get(order.userId());
+		if (Objects.nonNull(userOrders)) {
+			userOrders.updateAndGet(orders -> Arrays.stream(orders)
+					.filter(existing -> existing.orderId() != orderId)
+					.toArray(Order[]::new));
+		}
+		return ordersById.remove(orderId, order) ? order : null;
+	}
+
+	public Order findById(int orderId) {
+		return ordersById.get(orderId);
+	}
+
+	/**
+	 * Returns the orders of a user as an unmodifiable view of the current snapshot of the per-user index, which later
+	 * writes do not affect.
+	 */
+	public List<Order> findByUserId(int userId) {
+		var userOrders = ordersByUser.get(userId);
+		return Objects.isNull(userOrders)
+				? List.of()
+				: Collections.unmodifiableList(Arrays.asList(userOrders.get()));
+	}
+
+	public int size() {
+		return ordersById.size();
+	}
+
+	public int userCount() {
+		return ordersByUser.size();
+	}
+}
@@ -0,0 +1,88 @@
+package org.ablonewolf.services.impl;
+
+import org.ablonewolf.common.Bulkhead;
+import org.ablonewolf.common.CircuitBreaker;
+import org.ablonewolf.common.HttpClientConfig;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An {@link ExternalServiceClient} that fails fast while the external service is degraded, instead of letting every
+ * lookup wait on its own timeout.
+ * <p>
+ * The name, price and review lookups, and with them {@link #getProductInfo(Integer)}, are guarded by:<br>
+ * - a timeout per lookup, so that a lookup the service never answers fails with a {@link TimeoutException} instead
+ * of hanging;<br>
+ * - one {@link CircuitBreaker} shared by all endpoints, which stops calling the service once too many lookups fail,
+ * timed out lookups included, and lets a few trial lookups through after a while to find out whether it has
+ * recovered;<br>
+ * - one {@link Bulkhead} per endpoint, which rejects lookups beyond a fixed number in flight, so a single slow endpoint
+ * cannot take up the whole connection pool.
+ * <p>
+ * Rejected lookups fail with {@link CircuitBreaker.CallNotPermittedException} or
+ * {@link Bulkhead.BulkheadFullException}. A lookup rejected by a bulkhead is not counted as a failure by the breaker.
+ * Streams are not guarded, as they are not expected to complete.
+ */
+public class ResilientExternalServiceClient extends ExternalServiceClient {
+
+	private static final int DEFAULT_MAX_CONCURRENT_CALLS = 100;
+	private static final Duration DEFAULT_CALL_TIMEOUT = Duration.ofSeconds(5);
+
+	private final Duration callTimeout;
+	private final CircuitBreaker circuitBreaker;
+	private final Bulkhead nameBulkhead;
+	private final Bulkhead priceBulkhead;
+	private final Bulkhead reviewBulkhead;
+
+	public ResilientExternalServiceClient() {
+		this(HttpClientConfig.fromSystemProperties(), CircuitBreaker.withDefaults("external-service"),
+			 DEFAULT_MAX_CONCURRENT_CALLS, DEFAULT_CALL_TIMEOUT);
+	}
+
+	/**
+	 * @param config             the configuration of the underlying HTTP client
+	 * @param circuitBreaker     the circuit breaker guarding the external service
+	 * @param maxConcurrentCalls the maximum number of lookups in flight per endpoint
+	 * @param callTimeout        how long a lookup may take before it fails and counts as a failure for the breaker
+	 */
+	public ResilientExternalServiceClient(HttpClientConfig config, CircuitBreaker circuitBreaker,
+										  int maxConcurrentCalls, Duration callTimeout) {
+		super(config);
+		if (callTimeout.isZero() || callTimeout.isNegative()) {
+			throw new IllegalArgumentException("callTimeout must be positive, but was " + callTimeout);
+		}
+		this.callTimeout = callTimeout;
+		this.circuitBreaker = circuitBreaker;
+		this.nameBulkhead = new Bulkhead("product-name", maxConcurrentCalls);
+		this.priceBulkhead = new Bulkhead("product-price", maxConcurrentCalls);
+		this.reviewBulkhead = new Bulkhead("product-review", maxConcurrentCalls);
+	}
+
+	public CircuitBreaker.State getCircuitBreakerState() {
+		return circuitBreaker.getState();
+	}
+
+	@Override
+	protected Mono<String> fetchProductName(Integer productId) {
+		return guard(super.fetchProductName(productId), nameBulkhead);
+	}
+
+	@Override
+	protected Mono<String> getProductPrice(Integer productId) {
+		return guard(super.getProductPrice(productId), priceBulkhead);
+	}
+
+	@Override
+	protected Mono<String> getProductReview(Integer productId) {
+		return guard(super.getProductReview(productId), reviewBulkhead);
+	}
+
+	private <T> Mono<T> guard(Mono<T> lookup, Bulkhead bulkhead) {
+		return lookup
+				.timeout(callTimeout)
+				.transform(circuitBreaker.forMono())
+				.transform(bulkhead.forMono());
+	}
+}
@@ -0,0 +1,109 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.util.RaceTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The TestAdaptiveConcurrencyLimiter class verifies how {@link AdaptiveConcurrencyLimiter} admits calls and adapts
+ * its limit.
+ * <p>
+ * Key scenarios:<br>
+ * 1. No more calls than the limit run at once, and calls over the limit run once earlier ones complete.<br>
+ * 2. Failed calls shrink the limit, down to the minimum.<br>
+ * 3. Cancelling a running call frees its slot, and cancelling a waiting call takes it out of the queue.<br>
+ * 4. A call cancelled while it is being granted a slot gives the slot back.<br>
+ * 5. A long queue of calls completing synchronously is drained without growing the stack per call.
+ */
+public class TestAdaptiveConcurrencyLimiter {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	@Test
+	public void test_callsOverTheLimitWait() {
+		var limiter = new AdaptiveConcurrencyLimiter("test", 5, 5, 5, 0.9, 2.0);
+		var running = new AtomicInteger();
+		var maxRunning = new AtomicInteger();
+
+		var calls = Flux.range(0, 50)
+				.transform(limiter.flatMap(i -> Mono.defer(() -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					return Mono.delay(Duration.ofMillis(10))
+							.doOnNext(tick -> running.decrementAndGet())
+							.thenReturn(i);
+				})));
+
+		StepVerifier.create(calls)
+				.expectNextCount(50)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(5, maxRunning.get());
+		Assertions.assertEquals(0, limiter.getInFlight());
+	}
+
+	@Test
+	public void test_failuresShrinkTheLimit() {
+		var limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 20, 0.5, 2.0);
+
+		for (int i = 0; i < 5; i++) {
+			StepVerifier.create(limiter.wrap(Mono.error(new IllegalStateException("failed"))))
+					.expectError(IllegalStateException.class)
+					.verify(TIMEOUT);
+		}
+		Assertions.assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	public void test_cancelledCallsReleaseTheirPlace() {
+		var limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 0.9, 2.0);
+		var hanging = limiter.wrap(Mono.never()).subscribe();
+		var waiting = limiter.wrap(Mono.just("waiting")).subscribe();
+		Assertions.assertEquals(1, limiter.getInFlight());
+
+		waiting.dispose();
+		hanging.dispose();
+		Assertions.assertEquals(0, limiter.getInFlight());
+		StepVerifier.create(limiter.wrap(Mono.just("next")))
+				.expectNext("next")
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_cancelRacingAGrantReleasesTheSlot() {
+		var limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 0.9, 2.0);
+
+		for (int run = 0; run < 20_000; run++) {
+			var running = Sinks.<String>one();
+			limiter.wrap(running.asMono()).subscribe();
+			var waiting = limiter.wrap(Mono.just("waiting")).subscribe();
+
+			RaceTestUtils.race(() -> running.tryEmitValue("done"), waiting::dispose);
+			Assertions.assertEquals(0, limiter.getInFlight(), "slot lost in run " + run);
+		}
+	}
+
+	@Test
+	public void test_longQueueOfSynchronousCallsDoesNotOverflowTheStack() {
+		var limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 0.9, 2.0);
+		var running = Sinks.<Integer>one();
+		var completed = new LongAdder();
+		limiter.wrap(running.asMono()).subscribe();
+		for (int i = 0; i < 100_000; i++) {
+			limiter.wrap(Mono.just(i)).subscribe(value -> completed.increment());
+		}
+
+		running.tryEmitValue(-1);
+		Assertions.assertEquals(100_000, completed.sum());
+		Assertions.assertEquals(0, limiter.getInFlight());
+	}
+}
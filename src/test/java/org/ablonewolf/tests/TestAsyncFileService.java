@@ -0,0 +1,44 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.services.impl.AsyncFileServiceImpl;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+/**
+ * The TestAsyncFileService class verifies that {@link AsyncFileServiceImpl} writes content chunk by chunk and always
+ * terminates, whatever the content.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Content larger than one chunk, with characters encoded as several bytes, reads back unchanged.<br>
+ * 2. Content ending in a lone surrogate, which cannot be encoded, completes the write instead of spinning forever.
+ */
+public class TestAsyncFileService {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	private final AsyncFileServiceImpl fileService = new AsyncFileServiceImpl();
+
+	@Test
+	public void test_multiChunkContentRoundTrips() {
+		var content = "héllo wörld ✓ ".repeat(10_000);
+
+		StepVerifier.create(fileService.write("async-round-trip.txt", content)
+									.then(fileService.read("async-round-trip.txt")))
+				.expectNext(content)
+				.expectComplete()
+				.verify(TIMEOUT);
+		StepVerifier.create(fileService.delete("async-round-trip.txt"))
+				.verifyComplete();
+	}
+
+	@Test
+	public void test_writeOfUnencodableContentTerminates() {
+		StepVerifier.create(fileService.write("async-lone-surrogate.txt", "abc\uD800"))
+				.expectComplete()
+				.verify(TIMEOUT);
+		StepVerifier.create(fileService.delete("async-lone-surrogate.txt"))
+				.verifyComplete();
+	}
+}
@@ -0,0 +1,75 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.services.impl.BalanceLedger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The TestBalanceLedger class verifies the balance operations of {@link BalanceLedger}, alone and concurrently.
+ * <p>
+ * Key scenarios:<br>
+ * 1. A debit or transfer never takes a balance below zero, and operations on unknown accounts fail.<br>
+ * 2. Concurrent transfers between accounts spread over several chunks and a growing table neither lose nor create
+ * money.
+ */
+public class TestBalanceLedger {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+	private static final int ACCOUNTS = 10_000;
+
+	@Test
+	public void test_balancesNeverGoNegative() {
+		var ledger = new BalanceLedger();
+		Assertions.assertTrue(ledger.open(1, 100));
+		Assertions.assertTrue(ledger.open(2, 0));
+		Assertions.assertFalse(ledger.open(1, 50));
+
+		Assertions.assertFalse(ledger.debit(1, 101));
+		Assertions.assertTrue(ledger.transfer(1, 2, 60));
+		Assertions.assertFalse(ledger.transfer(1, 2, 60));
+		Assertions.assertEquals(40, ledger.balance(1));
+		Assertions.assertEquals(60, ledger.balance(2));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ledger.credit(3, 10));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ledger.transfer(1, 3, 10));
+		Assertions.assertEquals(40, ledger.balance(1));
+	}
+
+	@Test
+	public void test_concurrentTransfersKeepTheTotal() {
+		var ledger = new BalanceLedger();
+		for (int account = 0; account < ACCOUNTS; account++) {
+			ledger.open(account * 7 - ACCOUNTS, 1_000);
+		}
+
+		var transfers = Flux.range(0, 200_000)
+				.parallel()
+				.runOn(Schedulers.parallel())
+				.flatMap(i -> Mono.fromCallable(() -> {
+					var random = ThreadLocalRandom.current();
+					int from = random.nextInt(ACCOUNTS) * 7 - ACCOUNTS;
+					int to = random.nextInt(ACCOUNTS) * 7 - ACCOUNTS;
+					return ledger.transfer(from, to, random.nextInt(1, 500));
+				}))
+				.sequential()
+				.filter(transferred -> transferred)
+				.count();
+
+		StepVerifier.create(transfers)
+				.expectNextMatches(count -> count > 0)
+				.expectComplete()
+				.verify(TIMEOUT);
+		var snapshot = ledger.snapshot();
+		Assertions.assertEquals(ACCOUNTS, snapshot.accountIds().length);
+		Assertions.assertEquals(ACCOUNTS * 1_000L, snapshot.total());
+		for (long balance : snapshot.balances()) {
+			Assertions.assertTrue(balance >= 0);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.BookRevenueAggregator;
+import org.ablonewolf.model.BookOrder;
+import org.ablonewolf.model.BookRevenueReport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The TestBookRevenueAggregator class verifies the windowed revenue reports of {@link BookRevenueAggregator}, using
+ * virtual time.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Tumbling windows report every order once, and a last report covers the orders since the last window.<br>
+ * 2. Sliding windows report the orders of every pane still in the window, and forget those of panes that left it.<br>
+ * 3. A window without orders reports no genres.<br>
+ * 4. Windows and slides that are not positive, or windows that are not a multiple of the slide, are rejected.
+ */
+public class TestBookRevenueAggregator {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private static Mono<BookOrder> orderAfter(long seconds, String genre, int price) {
+		return Mono.delay(Duration.ofSeconds(seconds)).thenReturn(new BookOrder(genre, "title", price));
+	}
+
+	@Test
+	public void test_tumblingWindows() {
+		StepVerifier.withVirtualTime(() -> Flux.concat(orderAfter(1, "Fantasy", 10),
+													   orderAfter(1, "Fantasy", 20),
+													   orderAfter(4, "Science Fiction", 5))
+						.transform(BookRevenueAggregator.tumbling(Duration.ofSeconds(5)))
+						.map(BookRevenueReport::revenueReport))
+				.thenAwait(Duration.ofSeconds(6))
+				.expectNext(Map.of("Fantasy", 30))
+				.expectNext(Map.of("Science Fiction", 5))
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_slidingWindows() {
+		StepVerifier.withVirtualTime(() -> Flux.concat(orderAfter(1, "Fantasy", 10),
+													   orderAfter(5, "Fantasy", 20),
+													   Mono.delay(Duration.ofSeconds(6)).then(Mono.empty()))
+						.transform(BookRevenueAggregator.sliding(Duration.ofSeconds(10), Duration.ofSeconds(5)))
+						.map(BookRevenueReport::revenueReport))
+				.thenAwait(Duration.ofSeconds(12))
+				.expectNext(Map.of("Fantasy", 10))
+				.expectNext(Map.of("Fantasy", 30))
+				.expectNext(Map.of("Fantasy", 20))
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_windowWithoutOrders() {
+		StepVerifier.withVirtualTime(() -> Flux.<BookOrder>never()
+						.transform(BookRevenueAggregator.tumbling(Duration.ofSeconds(5)))
+						.map(BookRevenueReport::revenueReport))
+				.thenAwait(Duration.ofSeconds(5))
+				.expectNext(Map.of())
+				.thenCancel()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_invalidWindowsAreRejected() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> BookRevenueAggregator.tumbling(Duration.ZERO));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> BookRevenueAggregator.tumbling(Duration.ofSeconds(-1)));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> BookRevenueAggregator.sliding(Duration.ZERO, Duration.ofSeconds(1)));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> BookRevenueAggregator.sliding(Duration.ofSeconds(-2), Duration.ofSeconds(1)));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> BookRevenueAggregator.sliding(Duration.ofSeconds(3), Duration.ofSeconds(2)));
+	}
+}
@@ -0,0 +1,68 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.BoundedGroupBy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The TestBoundedGroupBy class verifies that {@link BoundedGroupBy} processes streams with any number of keys
+ * without hanging or losing elements.
+ * <p>
+ * Key scenarios:<br>
+ * 1. A stream with far more keys than open groups completes, with every element processed in order within its key.
+ * <br>
+ * 2. A group that receives no element for the idle timeout completes while the stream is still running.
+ */
+public class TestBoundedGroupBy {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	private static boolean sameKeyInOrder(List<Integer> elements) {
+		for (int i = 1; i < elements.size(); i++) {
+			if (elements.get(i) % 1_000 != elements.get(0) % 1_000 || elements.get(i) <= elements.get(i - 1)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Test
+	public void test_manyKeysDoNotHang() {
+		var groupBy = new BoundedGroupBy<Integer, Integer>("test", i -> i % 1_000, 8, Duration.ofMinutes(1));
+		var processed = new AtomicInteger();
+
+		StepVerifier.create(Flux.range(0, 100_000)
+									.transform(groupBy.process((key, group) -> group.collectList()))
+									.doOnNext(elements -> processed.addAndGet(elements.size())))
+				.thenConsumeWhile(TestBoundedGroupBy::sameKeyInOrder)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(100_000, processed.get());
+		Assertions.assertTrue(groupBy.getEvictions() > 0);
+		Assertions.assertEquals(0, groupBy.getGroupCount());
+	}
+
+	@Test
+	public void test_idleGroupsComplete() {
+		var groupBy = new BoundedGroupBy<String, String>("test", Function.identity(), 8, Duration.ofMillis(50));
+		var source = Flux.just("a", "a", "b").concatWith(Flux.never());
+
+		StepVerifier.create(source.transform(groupBy.process((key, group) -> group.count()
+						.map(count -> key + "=" + count))))
+				.recordWith(ArrayList::new)
+				.expectNextCount(2)
+				.consumeRecordedWith(counts -> Assertions.assertEquals(List.of("a=2", "b=1"),
+																	   counts.stream().sorted().toList()))
+				.thenCancel()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(0, groupBy.getGroupCount());
+	}
+}
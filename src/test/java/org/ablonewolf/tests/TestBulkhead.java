@@ -0,0 +1,60 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.Bulkhead;
+import org.ablonewolf.common.Bulkhead.BulkheadFullException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+/**
+ * The TestBulkhead class verifies that a {@link Bulkhead} caps the number of concurrent calls and gives back their
+ * slots however they end.
+ * <p>
+ * Key scenarios:<br>
+ * 1. A call beyond the cap is rejected without waiting, and a slot freed by a completed call can be reused.<br>
+ * 2. Failed and cancelled calls release their slots.
+ */
+public class TestBulkhead {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	@Test
+	public void test_rejectsCallsBeyondTheCap() {
+		var bulkhead = new Bulkhead("test", 2);
+		var first = Sinks.<String>one();
+		var second = Sinks.<String>one();
+		var firstCall = first.asMono().transform(bulkhead.<String>forMono()).toFuture();
+		second.asMono().transform(bulkhead.<String>forMono()).subscribe();
+		Assertions.assertEquals(2, bulkhead.getConcurrentCalls());
+
+		StepVerifier.create(Mono.just("rejected").transform(bulkhead.forMono()))
+				.expectError(BulkheadFullException.class)
+				.verify(TIMEOUT);
+
+		first.tryEmitValue("done");
+		Assertions.assertEquals("done", firstCall.join());
+		StepVerifier.create(Mono.just("accepted").transform(bulkhead.forMono()))
+				.expectNext("accepted")
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(1, bulkhead.getConcurrentCalls());
+	}
+
+	@Test
+	public void test_failedAndCancelledCallsReleaseTheirSlots() {
+		var bulkhead = new Bulkhead("test", 1);
+
+		StepVerifier.create(Mono.<String>error(new IllegalStateException("failed")).transform(bulkhead.forMono()))
+				.expectError(IllegalStateException.class)
+				.verify(TIMEOUT);
+		StepVerifier.create(Mono.<String>never().transform(bulkhead.forMono()))
+				.expectSubscription()
+				.thenCancel()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(0, bulkhead.getConcurrentCalls());
+	}
+}
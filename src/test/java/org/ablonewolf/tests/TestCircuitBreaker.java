@@ -0,0 +1,98 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.CircuitBreaker;
+import org.ablonewolf.common.CircuitBreaker.CallNotPermittedException;
+import org.ablonewolf.common.CircuitBreaker.State;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The TestCircuitBreaker class verifies the transitions of a {@link CircuitBreaker} between its states.
+ * <p>
+ * Key scenarios:<br>
+ * 1. The breaker opens once the failure rate is reached, and then rejects calls without subscribing to them.<br>
+ * 2. Calls that hang and are cut by a timeout inside the breaker count as failures.<br>
+ * 3. After the open duration, successful trial calls close the breaker again.<br>
+ * 4. Cancelled calls are not counted as failures.
+ */
+public class TestCircuitBreaker {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private static CircuitBreaker breaker(Duration openDuration) {
+		return new CircuitBreaker("test", 0.5, 4, 4, openDuration, 2);
+	}
+
+	private static Mono<String> call(CircuitBreaker breaker, Mono<String> mono) {
+		return mono.transform(breaker.forMono());
+	}
+
+	@Test
+	public void test_opensAtFailureRateAndRejectsCalls() {
+		var breaker = breaker(Duration.ofMinutes(1));
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(call(breaker, Mono.just("ok")))
+					.expectNext("ok")
+					.expectComplete()
+					.verify(TIMEOUT);
+			StepVerifier.create(call(breaker, Mono.error(new IllegalStateException("failed"))))
+					.expectError(IllegalStateException.class)
+					.verify(TIMEOUT);
+		}
+		Assertions.assertEquals(State.OPEN, breaker.getState());
+
+		var subscriptions = new AtomicInteger();
+		StepVerifier.create(call(breaker, Mono.just("ok").doOnSubscribe(s -> subscriptions.incrementAndGet())))
+				.expectError(CallNotPermittedException.class)
+				.verify(TIMEOUT);
+		Assertions.assertEquals(0, subscriptions.get());
+	}
+
+	@Test
+	public void test_timedOutCallsCountAsFailures() {
+		var breaker = breaker(Duration.ofMinutes(1));
+		for (int i = 0; i < 4; i++) {
+			StepVerifier.create(call(breaker, Mono.<String>never().timeout(Duration.ofMillis(20))))
+					.expectError(TimeoutException.class)
+					.verify(TIMEOUT);
+		}
+		Assertions.assertEquals(State.OPEN, breaker.getState());
+	}
+
+	@Test
+	public void test_successfulTrialCallsCloseTheBreaker() {
+		var breaker = breaker(Duration.ofMillis(50));
+		for (int i = 0; i < 4; i++) {
+			StepVerifier.create(call(breaker, Mono.error(new IllegalStateException("failed"))))
+					.expectError(IllegalStateException.class)
+					.verify(TIMEOUT);
+		}
+		Assertions.assertEquals(State.OPEN, breaker.getState());
+
+		StepVerifier.create(Mono.delay(Duration.ofMillis(100))
+									.then(call(breaker, Mono.just("trial")))
+									.then(call(breaker, Mono.just("trial"))))
+				.expectNext("trial")
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void test_cancelledCallsAreNotFailures() {
+		var breaker = breaker(Duration.ofMinutes(1));
+		for (int i = 0; i < 4; i++) {
+			StepVerifier.create(call(breaker, Mono.never()))
+					.expectSubscription()
+					.thenCancel()
+					.verify(TIMEOUT);
+		}
+		Assertions.assertEquals(State.CLOSED, breaker.getState());
+	}
+}
@@ -0,0 +1,92 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.batchingOperators.DeduplicationStrategy;
+import org.ablonewolf.batchingOperators.FileWriter;
+import org.ablonewolf.batchingOperators.FlushPolicy;
+import org.ablonewolf.common.Compression;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The TestCompression class verifies the reactive compression of {@link Compression}, and its use by
+ * {@link FileWriter}.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Chunks compressed with gzip and deflate decompress back to the original content.<br>
+ * 2. With a sync flush, the output of every chunk can be decompressed before the stream completes.<br>
+ * 3. A compressed file written with a given deduplication strategy skips lines as that strategy decides.
+ */
+public class TestCompression {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	@TempDir
+	Path directory;
+
+	private static Flux<ByteBuffer> chunks(String... chunks) {
+		return Flux.just(chunks)
+				.map(chunk -> ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String text(List<ByteBuffer> chunks) {
+		var content = new StringBuilder();
+		chunks.forEach(chunk -> content.append(StandardCharsets.UTF_8.decode(chunk)));
+		return content.toString();
+	}
+
+	@Test
+	public void test_roundTrip() {
+		for (Compression compression : List.of(Compression.gzip(), Compression.deflate(9))) {
+			var content = chunks("first line\n", "second line\n".repeat(10_000), "last line\n");
+
+			StepVerifier.create(compression.decompress(compression.compress(content))
+										.collectList()
+										.map(TestCompression::text))
+					.expectNext("first line\n" + "second line\n".repeat(10_000) + "last line\n")
+					.expectComplete()
+					.verify(TIMEOUT);
+		}
+	}
+
+	@Test
+	public void test_syncFlushedChunksDecompressBeforeCompletion() {
+		var compression = Compression.deflate();
+
+		StepVerifier.create(compression.compress(chunks("first\n", "second\n", "third\n"), true)
+									.take(2)
+									.transform(compression::decompress)
+									.collectList()
+									.map(TestCompression::text))
+				.expectNext("first\nsecond\n")
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_compressedFileUsesGivenDeduplication() throws IOException {
+		var path = directory.resolve("deduplicated.gz");
+		var content = Flux.just("a", "b", "a", "c", "a");
+
+		StepVerifier.create(FileWriter.createAndWriteToFile(content, path, FlushPolicy.everyLines(1),
+															 Compression.gzip(),
+															 DeduplicationStrategy.recent(1, Duration.ofMinutes(1))))
+				.expectComplete()
+				.verify(TIMEOUT);
+		try (InputStream input = Compression.gzip().decompress(Files.newInputStream(path))) {
+			Assertions.assertEquals("a%nb%na%nc%na%n".formatted(),
+									new String(input.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+}
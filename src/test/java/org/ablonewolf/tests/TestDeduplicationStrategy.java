@@ -0,0 +1,95 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.batchingOperators.DeduplicationStrategy;
+import org.ablonewolf.batchingOperators.FileWriter;
+import org.ablonewolf.batchingOperators.FlushPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The TestDeduplicationStrategy class verifies that the exact and Bloom filter {@link DeduplicationStrategy} skip
+ * duplicate lines, and how often the Bloom filter wrongly skips a new one.
+ * <p>
+ * Key scenarios:<br>
+ * 1. A file written with exact deduplication holds every distinct line once, in the order first seen.<br>
+ * 2. Exact deduplication lets a line through only once, even when it is marked from several threads at a time.<br>
+ * 3. The Bloom filter never lets a duplicate through.<br>
+ * 4. At its expected number of items, the Bloom filter skips new lines at no more than about its configured
+ * false-positive rate.
+ */
+public class TestDeduplicationStrategy {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void test_fileWithExactDeduplication() throws IOException {
+		var path = directory.resolve("deduplicated.txt");
+		var content = Flux.just("a", "b", "a", "c", "b", "a", "d");
+
+		StepVerifier.create(FileWriter.createAndWriteToFile(content, path, FlushPolicy.everyLines(2),
+															 DeduplicationStrategy.exact()))
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(List.of("a", "b", "c", "d"), Files.readAllLines(path));
+	}
+
+	@Test
+	public void test_exactDeduplicationAcrossThreads() {
+		var deduplication = DeduplicationStrategy.exact();
+		var lines = Flux.range(0, 100_000).map(i -> "line-" + i % 1_000);
+
+		StepVerifier.create(lines.parallel(4)
+									.runOn(Schedulers.parallel())
+									.filter(deduplication::markIfNew)
+									.sequential()
+									.count())
+				.expectNext(1_000L)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertTrue(deduplication.estimatedMemoryBytes() > 0);
+	}
+
+	@Test
+	public void test_bloomFilterDropsEveryDuplicate() {
+		var deduplication = DeduplicationStrategy.bloomFilter(10_000, 0.01);
+		List<String> items = IntStream.range(0, 10_000).mapToObj(i -> "item-" + i).toList();
+
+		items.forEach(deduplication::markIfNew);
+
+		for (String item : items) {
+			Assertions.assertFalse(deduplication.markIfNew(item), item + " was let through twice");
+		}
+	}
+
+	@Test
+	public void test_bloomFilterFalsePositiveRate() {
+		int expectedItems = 100_000;
+		double falsePositiveRate = 0.01;
+		var deduplication = DeduplicationStrategy.bloomFilter(expectedItems, falsePositiveRate);
+		IntStream.range(0, expectedItems).forEach(i -> deduplication.markIfNew("seen-" + i));
+
+		// every probe is remembered as well, so only a small share of the capacity is probed to stay near it
+		int probes = expectedItems / 100;
+		long falsePositives = IntStream.range(0, probes)
+				.filter(i -> !deduplication.markIfNew("new-" + i))
+				.count();
+
+		double measuredRate = (double) falsePositives / probes;
+		Assertions.assertTrue(measuredRate <= 1.5 * falsePositiveRate,
+							  "false-positive rate was " + measuredRate);
+	}
+}
@@ -0,0 +1,87 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.services.impl.FileReaderServiceUsingMemoryMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Hooks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The TestFileReaderServiceUsingMemoryMap class verifies reading memory-mapped files with
+ * {@link FileReaderServiceUsingMemoryMap}.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Every line is read in order, sequentially and in parallel.<br>
+ * 2. Cancelling a read while lines are being emitted on another thread closes the file without failing the read in
+ * progress.
+ */
+public class TestFileReaderServiceUsingMemoryMap {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+	private static final int LINES = 100_000;
+
+	private final FileReaderServiceUsingMemoryMap fileReaderService = new FileReaderServiceUsingMemoryMap();
+
+	@TempDir
+	Path directory;
+
+	@AfterEach
+	public void resetHooks() {
+		Hooks.resetOnErrorDropped();
+	}
+
+	private Path writeLines() throws IOException {
+		var path = directory.resolve("lines.txt");
+		Files.writeString(path, IntStream.range(0, LINES)
+				.mapToObj(String::valueOf)
+				.collect(Collectors.joining("\n", "", "\n")));
+		return path;
+	}
+
+	@Test
+	public void test_readsEveryLineInOrder() throws IOException {
+		var path = writeLines();
+		var expected = IntStream.range(0, LINES).mapToObj(String::valueOf).toList();
+
+		StepVerifier.create(fileReaderService.read(path).collectList())
+				.expectNext(expected)
+				.expectComplete()
+				.verify(TIMEOUT);
+		StepVerifier.create(fileReaderService.readParallelOrdered(path, 4).collectList())
+				.expectNext(expected)
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_cancellingWhileReadingOnAnotherThread() throws IOException {
+		var path = writeLines();
+		List<Throwable> dropped = new CopyOnWriteArrayList<>();
+		Hooks.onErrorDropped(dropped::add);
+
+		for (int run = 0; run < 200; run++) {
+			var subscription = fileReaderService.read(path)
+					.publishOn(Schedulers.parallel(), 1)
+					.subscribe(line -> {
+					}, dropped::add);
+			while (Math.random() < 0.99) {
+				Thread.onSpinWait();
+			}
+			subscription.dispose();
+		}
+
+		Assertions.assertEquals(List.of(), dropped);
+	}
+}
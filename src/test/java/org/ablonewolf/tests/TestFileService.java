@@ -0,0 +1,110 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.Compression;
+import org.ablonewolf.services.impl.FileServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * The TestFileService class verifies that {@link FileServiceImpl} streams files chunk by chunk without changing their
+ * bytes.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Bytes written as a stream of chunks read back unchanged as a stream, for a file larger than one chunk.<br>
+ * 2. Writing a stream replaces the previous content of the file instead of overwriting only its start.<br>
+ * 3. A stream compressed on its way to the file reads back unchanged once decompressed.<br>
+ * 4. Streaming a file that does not exist fails instead of completing empty.
+ */
+public class TestFileService {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+	private static final String FILE_NAME = "stream-round-trip.bin";
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	private final FileServiceImpl fileService = new FileServiceImpl();
+
+	@AfterEach
+	public void deleteFile() {
+		fileService.delete(FILE_NAME).block(TIMEOUT);
+	}
+
+	private static byte[] randomBytes(int length) {
+		byte[] bytes = new byte[length];
+		new Random(42).nextBytes(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Splits the bytes into chunks of an uneven size, so that written chunks do not line up with read ones.
+	 */
+	private static Flux<ByteBuffer> chunks(byte[] bytes, int chunkSize) {
+		return Flux.range(0, (bytes.length + chunkSize - 1) / chunkSize)
+				.map(i -> ByteBuffer.wrap(bytes, i * chunkSize, Math.min(chunkSize, bytes.length - i * chunkSize)));
+	}
+
+	private static Mono<byte[]> concat(Flux<ByteBuffer> chunks) {
+		return chunks.collect(ByteArrayOutputStream::new, (output, chunk) -> {
+					byte[] bytes = new byte[chunk.remaining()];
+					chunk.get(bytes);
+					output.writeBytes(bytes);
+				})
+				.map(ByteArrayOutputStream::toByteArray);
+	}
+
+	@Test
+	public void test_streamRoundTrip() {
+		byte[] content = randomBytes(3 * CHUNK_SIZE + 123);
+
+		StepVerifier.create(fileService.writeStream(FILE_NAME, chunks(content, 10_007)))
+				.expectComplete()
+				.verify(TIMEOUT);
+		StepVerifier.create(fileService.readStream(FILE_NAME).map(ByteBuffer::remaining))
+				.expectNext(CHUNK_SIZE, CHUNK_SIZE, CHUNK_SIZE, 123)
+				.expectComplete()
+				.verify(TIMEOUT);
+		StepVerifier.create(concat(fileService.readStream(FILE_NAME)))
+				.assertNext(read -> Assertions.assertArrayEquals(content, read))
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_writeStreamReplacesPreviousContent() {
+		byte[] content = randomBytes(1_000);
+
+		StepVerifier.create(fileService.writeStream(FILE_NAME, chunks(randomBytes(2 * CHUNK_SIZE), CHUNK_SIZE))
+									.then(fileService.writeStream(FILE_NAME, chunks(content, 100)))
+									.then(concat(fileService.readStream(FILE_NAME))))
+				.assertNext(read -> Assertions.assertArrayEquals(content, read))
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_compressedStreamRoundTrip() {
+		byte[] content = "compressible ".repeat(20_000).getBytes();
+
+		StepVerifier.create(fileService.writeStream(FILE_NAME, chunks(content, 10_007), Compression.gzip())
+									.then(concat(fileService.readStream(FILE_NAME, Compression.gzip()))))
+				.assertNext(read -> Assertions.assertArrayEquals(content, read))
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_readStreamOfMissingFileFails() {
+		StepVerifier.create(fileService.readStream("missing-" + FILE_NAME))
+				.expectError(NoSuchFileException.class)
+				.verify(TIMEOUT);
+	}
+}
@@ -0,0 +1,69 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.batchingOperators.FileWriter;
+import org.ablonewolf.batchingOperators.FlushPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The TestFlushPolicy class verifies how a {@link FlushPolicy} batches the lines written by {@link FileWriter}.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Batches closed by the timer while the writer is busy wait for it instead of failing with an overflow.<br>
+ * 2. The same holds for a policy closing batches by time only, with a writer that falls behind.<br>
+ * 3. Policies with no lines per batch, or with a delay that is not positive, are rejected.
+ */
+public class TestFlushPolicy {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void test_timerBatchesWaitForTheWriter() throws IOException {
+		var path = directory.resolve("batched.txt");
+		var content = Flux.range(0, 200_000).map(String::valueOf);
+
+		StepVerifier.create(FileWriter.createAndWriteToFile(content, path,
+															 FlushPolicy.everyLinesOrInterval(100, Duration.ofMillis(1))))
+				.expectComplete()
+				.verify(TIMEOUT);
+		try (var lines = Files.lines(path)) {
+			Assertions.assertEquals(200_000, lines.count());
+		}
+	}
+
+	@Test
+	public void test_timeOnlyBatchesWaitForASlowWriter() throws IOException {
+		var path = directory.resolve("timed.txt");
+		var content = Flux.range(0, 200_000)
+				.map(String::valueOf)
+				.concatWith(Flux.range(200_000, 50)
+									.delayElements(Duration.ofMillis(2))
+									.map(String::valueOf));
+
+		StepVerifier.create(FileWriter.createAndWriteToFile(content, path, FlushPolicy.every(Duration.ofMillis(1))))
+				.expectComplete()
+				.verify(TIMEOUT);
+		try (var lines = Files.lines(path)) {
+			Assertions.assertEquals(200_050, lines.count());
+		}
+	}
+
+	@Test
+	public void test_invalidPoliciesAreRejected() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> FlushPolicy.everyLines(0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> FlushPolicy.every(Duration.ZERO));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> FlushPolicy.everyLinesOrInterval(10, Duration.ofMillis(-1)));
+	}
+}
@@ -0,0 +1,88 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.AbstractHttpClient;
+import org.ablonewolf.common.HttpClientConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The TestHttpClientConfig class verifies how {@link HttpClientConfig} is read and how {@link AbstractHttpClient}
+ * shares HTTP clients between instances.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Settings are read from system properties, falling back to their defaults.<br>
+ * 2. Clients built from equal configurations share one HTTP client, and clients built from different ones do not.
+ * <br>
+ * 3. A configuration enabling HTTP/2 offers h2c next to HTTP/1.1.
+ */
+public class TestHttpClientConfig {
+
+	private static final List<String> PROPERTIES = List.of("base-url", "max-connections", "pending-acquire-timeout",
+														   "http2", "max-concurrent-streams");
+
+	@AfterEach
+	public void clearProperties() {
+		PROPERTIES.forEach(property -> System.clearProperty(HttpClientConfig.PROPERTY_PREFIX + property));
+	}
+
+	private static HttpClientConfig config(String baseUrl, boolean http2) {
+		return new HttpClientConfig(baseUrl, 1, 10, 10, Duration.ofSeconds(1), Duration.ofSeconds(30),
+									Duration.ofSeconds(10), http2, 50);
+	}
+
+	@Test
+	public void test_settingsAreReadFromSystemProperties() {
+		System.setProperty(HttpClientConfig.PROPERTY_PREFIX + "base-url", "http://example:8080/");
+		System.setProperty(HttpClientConfig.PROPERTY_PREFIX + "max-connections", "42");
+		System.setProperty(HttpClientConfig.PROPERTY_PREFIX + "pending-acquire-timeout", "250");
+		System.setProperty(HttpClientConfig.PROPERTY_PREFIX + "http2", "true");
+		System.setProperty(HttpClientConfig.PROPERTY_PREFIX + "max-concurrent-streams", "7");
+
+		var config = HttpClientConfig.fromSystemProperties();
+		Assertions.assertEquals("http://example:8080/", config.baseUrl());
+		Assertions.assertEquals(42, config.maxConnections());
+		Assertions.assertEquals(Duration.ofMillis(250), config.pendingAcquireTimeout());
+		Assertions.assertTrue(config.http2());
+		Assertions.assertEquals(7, config.maxConcurrentStreams());
+		Assertions.assertEquals(1000, config.pendingAcquireMaxCount());
+		Assertions.assertEquals(Duration.ofMillis(30000), config.maxIdleTime());
+	}
+
+	@Test
+	public void test_clientsAreSharedPerConfig() {
+		var first = new TestClient(config("http://localhost:7001/", false));
+		var second = new TestClient(config("http://localhost:7001/", false));
+		var other = new TestClient(config("http://localhost:7002/", false));
+
+		Assertions.assertSame(first.client(), second.client());
+		Assertions.assertNotSame(first.client(), other.client());
+	}
+
+	@Test
+	public void test_http2IsOfferedWhenEnabled() {
+		var http2 = new TestClient(config("http://localhost:7003/", true));
+		var http11 = new TestClient(config("http://localhost:7004/", false));
+
+		Assertions.assertArrayEquals(new HttpProtocol[]{HttpProtocol.HTTP11, HttpProtocol.H2C},
+									 http2.client().configuration().protocols());
+		Assertions.assertArrayEquals(new HttpProtocol[]{HttpProtocol.HTTP11},
+									 http11.client().configuration().protocols());
+	}
+
+	private static final class TestClient extends AbstractHttpClient {
+
+		private TestClient(HttpClientConfig config) {
+			super(config);
+		}
+
+		private HttpClient client() {
+			return httpClient;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.StreamFrameDecoder;
+import org.ablonewolf.common.StreamFrameDecoder.Framing;
+import org.ablonewolf.server.ExternalServiceStandIn;
+import org.ablonewolf.server.LoadProfile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.client.HttpClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The TestLoadProfile class verifies that a {@link LoadProfile} rejects settings it cannot simulate, draws latencies
+ * with the configured median and 99th percentile, and paces the streams of {@link ExternalServiceStandIn}.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Negative latencies, a 99th percentile without a median, and streams without interval or elements are rejected.<br>
+ * 2. Over many samples, the drawn latencies have the configured median and 99th percentile, within a tolerance.<br>
+ * 3. A stream of the stand-in has the configured number of elements, one per interval.
+ */
+public class TestLoadProfile {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+	private static final LoadProfile IDLE = new LoadProfile(Duration.ZERO, Duration.ZERO, 0,
+															Duration.ofMillis(500), 20);
+
+	@Test
+	public void test_invalidProfilesAreRejected() {
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> IDLE.withLatency(Duration.ofMillis(-1), Duration.ZERO));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> IDLE.withLatency(Duration.ZERO, Duration.ofMillis(100)));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> IDLE.withLatency(Duration.ofMillis(100), Duration.ofMillis(50)));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> IDLE.withErrorRate(1.5));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> IDLE.withStreams(Duration.ZERO, 20));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> IDLE.withStreams(Duration.ofMillis(500), 0));
+	}
+
+	@Test
+	public void test_latencyDistribution() {
+		var profile = IDLE.withLatency(Duration.ofMillis(20), Duration.ofMillis(100));
+		int samples = 100_000;
+
+		long[] latencies = IntStream.range(0, samples)
+				.mapToLong(i -> profile.sampleLatency().toNanos())
+				.toArray();
+		Arrays.sort(latencies);
+
+		double median = latencies[samples / 2] / 1e6;
+		double p99 = latencies[samples * 99 / 100] / 1e6;
+		Assertions.assertEquals(20, median, 1, "median latency in ms");
+		Assertions.assertEquals(100, p99, 10, "99th percentile latency in ms");
+	}
+
+	@Test
+	public void test_fixedLatency() {
+		var profile = IDLE.withLatency(Duration.ofMillis(20), Duration.ofMillis(20));
+
+		Assertions.assertEquals(Duration.ofMillis(20), profile.sampleLatency());
+		Assertions.assertEquals(Duration.ZERO, IDLE.sampleLatency());
+	}
+
+	@Test
+	public void test_streamLengthAndInterval() {
+		var interval = Duration.ofMillis(100);
+		var server = ExternalServiceStandIn.start(0, IDLE.withStreams(interval, 5));
+		try {
+			var prices = HttpClient.create()
+					.get()
+					.uri("http://localhost:" + server.port() + "/demo02/price/stream")
+					.responseContent()
+					.transform(content -> StreamFrameDecoder.decode(content, Framing.LINES,
+																	StreamFrameDecoder::parseInt))
+					.elapsed()
+					.collectList();
+
+			StepVerifier.create(prices)
+					.assertNext(elements -> {
+						Assertions.assertEquals(5, elements.size());
+						Assertions.assertEquals(100, elements.getFirst().getT2());
+						Assertions.assertTrue(elements.getFirst().getT1() >= interval.toMillis(),
+											  "the first element came after " + elements.getFirst().getT1() + "ms");
+						for (var element : elements.subList(1, elements.size())) {
+							// a lenient bound, as two elements may be delayed by the network by a different amount
+							Assertions.assertTrue(element.getT1() >= interval.toMillis() / 2,
+												  "an element came " + element.getT1() + "ms after the previous one");
+						}
+					})
+					.expectComplete()
+					.verify(TIMEOUT);
+		} finally {
+			server.disposeNow();
+		}
+	}
+}
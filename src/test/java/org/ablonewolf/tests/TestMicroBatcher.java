@@ -0,0 +1,83 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.MicroBatcher;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The TestMicroBatcher class verifies that every lookup made through a {@link MicroBatcher} completes, whatever
+ * happens to the batch it is part of.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Batches cut by the timer while all concurrent batches are in flight wait for a free slot instead of overflowing.
+ * <br>
+ * 2. A loader that throws fails only the lookups of its own batch.<br>
+ * 3. Disposing the batcher fails pending lookups and lookups made afterward.
+ */
+public class TestMicroBatcher {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	private static Function<List<Integer>, Mono<Map<Integer, Integer>>> doublingLoader(Duration latency) {
+		return keys -> Mono.delay(latency)
+				.thenReturn(keys.stream().collect(Collectors.toMap(key -> key, key -> key * 2)));
+	}
+
+	@Test
+	public void test_allLookupsCompleteWhenConcurrencyIsSaturated() {
+		var batcher = new MicroBatcher<>(100, Duration.ofMillis(10), 8, doublingLoader(Duration.ofMillis(300)));
+
+		var lookups = Flux.range(0, 500)
+				.delayElements(Duration.ofMillis(1))
+				.flatMap(batcher::load);
+
+		StepVerifier.create(lookups)
+				.expectNextCount(500)
+				.expectComplete()
+				.verify(TIMEOUT);
+		batcher.dispose();
+	}
+
+	@Test
+	public void test_throwingLoaderFailsOnlyItsBatch() {
+		var batcher = new MicroBatcher<Integer, Integer>(10, Duration.ofMillis(5), 2, keys -> {
+			if (keys.contains(3)) {
+				throw new IllegalStateException("loader failed");
+			}
+			return doublingLoader(Duration.ZERO).apply(keys);
+		});
+
+		StepVerifier.create(batcher.load(3))
+				.expectErrorMessage("loader failed")
+				.verify(TIMEOUT);
+		StepVerifier.create(batcher.load(4))
+				.expectNext(8)
+				.expectComplete()
+				.verify(TIMEOUT);
+		batcher.dispose();
+	}
+
+	@Test
+	public void test_disposeFailsPendingAndLaterLookups() {
+		var batcher = new MicroBatcher<Integer, Integer>(10, Duration.ofMillis(5), 2, keys -> Mono.never());
+
+		StepVerifier.create(batcher.load(1))
+				.expectSubscription()
+				.thenAwait(Duration.ofMillis(50))
+				.then(batcher::dispose)
+				.expectError(CancellationException.class)
+				.verify(TIMEOUT);
+		StepVerifier.create(batcher.load(2))
+				.expectError(CancellationException.class)
+				.verify(TIMEOUT);
+	}
+}
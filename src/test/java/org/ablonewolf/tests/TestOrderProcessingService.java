@@ -0,0 +1,131 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.model.ItemOrder;
+import org.ablonewolf.services.OrderProcessingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Fuseable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * The TestOrderProcessingService class verifies the rules applied by {@link OrderProcessingService#process()}.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Every rule is applied to the orders of its category, and orders of other categories are dropped.<br>
+ * 2. The orders emitted for one order are not overwritten by later orders when they are consumed on another thread.<br>
+ * 3. Rules emitting no, one, two or many orders keep the order and the count of their results, whether the results
+ * are drained, polled by a fused subscriber, or handed over to another thread with or without fusion.
+ */
+public class TestOrderProcessingService {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+	private static final String BULK = "Bulk";
+	private static final int BULK_COPIES = 9;
+
+	@AfterEach
+	public void unregisterBulkRule() {
+		OrderProcessingService.unregisterRule(BULK);
+	}
+
+	private static Flux<ItemOrder> mixedOrders() {
+		String[] categories = {"Kids", "Automotive", "Home", BULK};
+		return Flux.range(0, 10_000)
+				.map(i -> new ItemOrder("item-" + i, categories[i % categories.length], i));
+	}
+
+	/**
+	 * The results the rules are expected to emit for {@link #mixedOrders()}, computed without the operator.
+	 */
+	private static List<ItemOrder> expectedResults() {
+		List<ItemOrder> expected = new ArrayList<>();
+		for (ItemOrder order : mixedOrders().toIterable()) {
+			switch (order.category()) {
+				case "Kids" -> {
+					expected.add(order);
+					expected.add(new ItemOrder(order.item() + "-FREE", "Kids", 0));
+				}
+				case "Automotive" -> expected.add(new ItemOrder(order.item(), "Automotive", order.price() + 100));
+				case BULK -> {
+					for (int copy = 0; copy < BULK_COPIES; copy++) {
+						expected.add(new ItemOrder(order.item() + "#" + copy, BULK, order.price()));
+					}
+				}
+				default -> {
+				}
+			}
+		}
+		return expected;
+	}
+
+	private static void registerBulkRule() {
+		OrderProcessingService.registerRule(BULK, (order, emitter) -> {
+			for (int copy = 0; copy < BULK_COPIES; copy++) {
+				emitter.accept(new ItemOrder(order.item() + "#" + copy, BULK, order.price()));
+			}
+		});
+	}
+
+	@Test
+	public void test_rulesAreAppliedPerCategory() {
+		var orders = Flux.just(new ItemOrder("ball", "Kids", 10),
+							   new ItemOrder("tyre", "Automotive", 50),
+							   new ItemOrder("lamp", "Home", 20));
+
+		StepVerifier.create(orders.transform(OrderProcessingService.process()))
+				.expectNext(new ItemOrder("ball", "Kids", 10))
+				.expectNext(new ItemOrder("ball-FREE", "Kids", 0))
+				.expectNext(new ItemOrder("tyre", "Automotive", 150))
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_resultsSurviveConsumptionOnAnotherThread() {
+		var orders = Flux.range(0, 10_000)
+				.map(i -> new ItemOrder("toy-" + i, "Kids", i));
+
+		StepVerifier.create(orders.transform(OrderProcessingService.process())
+									.publishOn(Schedulers.parallel(), 1)
+									.buffer(2))
+				.thenConsumeWhile(pair -> pair.get(1).equals(new ItemOrder(pair.get(0).item() + "-FREE", "Kids", 0)))
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_resultsKeepOrderAndCountWhenFused() {
+		registerBulkRule();
+
+		StepVerifier.create(mixedOrders().transform(OrderProcessingService.process()))
+				.expectFusion(Fuseable.SYNC)
+				.expectNextSequence(expectedResults())
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_resultsKeepOrderAndCountAcrossThreads() {
+		registerBulkRule();
+		var expected = expectedResults();
+		List<UnaryOperator<Flux<ItemOrder>>> consumers = List.of(
+				results -> results.publishOn(Schedulers.parallel(), 3),
+				results -> results.hide().publishOn(Schedulers.parallel(), 3),
+				results -> results.subscribeOn(Schedulers.single()).publishOn(Schedulers.parallel(), 1));
+
+		for (var consumer : consumers) {
+			StepVerifier.create(mixedOrders().transform(OrderProcessingService.process())
+										.transform(consumer)
+										.collectList())
+					.expectNext(expected)
+					.expectComplete()
+					.verify(TIMEOUT);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.model.Order;
+import org.ablonewolf.services.OrderService;
+import org.ablonewolf.services.impl.OrderRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+/**
+ * The TestOrderRepository class verifies the indexes of {@link OrderRepository} and their use by
+ * {@link OrderService}.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Orders inserted concurrently are all found by ID and among their user's orders, in insertion order.<br>
+ * 2. A list of a user's orders is a snapshot, unaffected by later inserts and removals.<br>
+ * 3. An order placed through {@link OrderService} is streamed with the orders of its user.
+ */
+public class TestOrderRepository {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	@Test
+	public void test_concurrentInsertsAreIndexed() {
+		var repository = new OrderRepository();
+		var inserts = Flux.range(0, 100)
+				.parallel()
+				.runOn(Schedulers.parallel())
+				.flatMap(userId -> Flux.range(0, 100)
+						.map(i -> repository.insert(new Order(repository.nextOrderId(), userId, "item-" + i, i))))
+				.sequential()
+				.filter(inserted -> inserted);
+
+		StepVerifier.create(inserts)
+				.expectNextCount(10_000)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(10_000, repository.size());
+		Assertions.assertEquals(100, repository.userCount());
+		for (int userId = 0; userId < 100; userId++) {
+			var orders = repository.findByUserId(userId);
+			Assertions.assertEquals(100, orders.size());
+			for (int i = 0; i < orders.size(); i++) {
+				Assertions.assertEquals(i, orders.get(i).price());
+				Assertions.assertSame(orders.get(i), repository.findById(orders.get(i).orderId()));
+			}
+		}
+	}
+
+	@Test
+	public void test_userOrdersAreSnapshots() {
+		var repository = new OrderRepository();
+		repository.insert(new Order(1, 7, "book", 10));
+		repository.insert(new Order(2, 7, "pen", 2));
+		Assertions.assertFalse(repository.insert(new Order(2, 7, "duplicate", 3)));
+
+		var snapshot = repository.findByUserId(7);
+		repository.insert(new Order(3, 7, "ink", 5));
+		Assertions.assertEquals(2, repository.remove(2).orderId());
+		Assertions.assertNull(repository.remove(2));
+
+		Assertions.assertEquals(2, snapshot.size());
+		Assertions.assertEquals(2, repository.findByUserId(7).size());
+		Assertions.assertNull(repository.findById(2));
+		Assertions.assertTrue(repository.nextOrderId() > 3);
+	}
+
+	@Test
+	public void test_placedOrderIsStreamedWithItsUser() {
+		int userId = 9_999;
+
+		StepVerifier.create(OrderService.placeOrder(userId, "lamp", 40)
+									.thenMany(OrderService.getUserOrders(userId)))
+				.expectNextMatches(order -> order.userId() == userId && order.productName().equals("lamp"))
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+}
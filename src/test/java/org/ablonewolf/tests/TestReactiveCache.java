@@ -0,0 +1,92 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.ReactiveCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The TestReactiveCache class verifies loading, refreshing and eviction in {@link ReactiveCache}.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Concurrent lookups of a key share a single load.<br>
+ * 2. A background refresh that completes empty keeps the current value and does not stop later refreshes.<br>
+ * 3. A failed load is not cached.<br>
+ * 4. The number of cached keys stays within the maximum size.
+ */
+public class TestReactiveCache {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	@Test
+	public void test_concurrentLookupsShareOneLoad() {
+		var loads = new AtomicInteger();
+		var cache = new ReactiveCache<Integer, String>(100, Duration.ofMinutes(1), Duration.ofMinutes(1), key -> {
+			loads.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(100)).thenReturn("value-" + key);
+		});
+
+		StepVerifier.create(Flux.range(0, 50).flatMap(i -> cache.get(1)))
+				.expectNextCount(50)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void test_emptyRefreshDoesNotStopLaterRefreshes() {
+		var loads = new AtomicInteger();
+		var cache = new ReactiveCache<Integer, String>(100, Duration.ofMinutes(1), Duration.ofMillis(50), key ->
+				switch (loads.incrementAndGet()) {
+					case 1 -> Mono.just("first");
+					case 2 -> Mono.empty();
+					default -> Mono.just("refreshed");
+				});
+
+		StepVerifier.create(cache.get(1)
+									.then(Mono.delay(Duration.ofMillis(100)))
+									.then(cache.get(1))
+									.then(Mono.delay(Duration.ofMillis(100)))
+									.then(cache.get(1))
+									.then(Mono.delay(Duration.ofMillis(20)))
+									.then(cache.get(1)))
+				.expectNext("refreshed")
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(3, loads.get());
+	}
+
+	@Test
+	public void test_failedLoadIsNotCached() {
+		var loads = new AtomicInteger();
+		var cache = new ReactiveCache<Integer, String>(100, Duration.ofMinutes(1), Duration.ofMinutes(1), key ->
+				loads.incrementAndGet() == 1
+						? Mono.error(new IllegalStateException("unavailable"))
+						: Mono.just("value-" + key));
+
+		StepVerifier.create(cache.get(1))
+				.expectError(IllegalStateException.class)
+				.verify(TIMEOUT);
+		StepVerifier.create(cache.get(1))
+				.expectNext("value-1")
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_sizeStaysWithinMaximum() {
+		var cache = new ReactiveCache<Integer, String>(10, Duration.ofMinutes(1), Duration.ofMinutes(1),
+													   key -> Mono.just("value-" + key));
+
+		StepVerifier.create(Flux.range(0, 1000).concatMap(cache::get))
+				.expectNextCount(1000)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertTrue(cache.size() <= 10, "cache holds " + cache.size() + " keys");
+	}
+}
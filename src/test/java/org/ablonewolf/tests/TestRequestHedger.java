@@ -0,0 +1,118 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.common.HedgingPolicy;
+import org.ablonewolf.common.RequestHedger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The TestRequestHedger class verifies that {@link RequestHedger} sends a second copy of a slow request only once it
+ * has learned the latency percentile, and no more often than its budget allows. Time is virtual, so the delays are
+ * exact.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Nothing is hedged before enough latencies were recorded to compute a delay.<br>
+ * 2. The hedge is sent after the percentile delay, wins over the slow request and the slow request is cancelled.<br>
+ * 3. A burst of slow requests is hedged no more than the hedge ratio allows.
+ */
+public class TestRequestHedger {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+	private static final Duration FAST = Duration.ofMillis(10);
+	private static final Duration SLOW = Duration.ofSeconds(1);
+	private static final int MIN_SAMPLES = 20;
+
+	private static Flux<Long> calls(RequestHedger hedger, int count, Duration latency, AtomicInteger requests) {
+		return Flux.range(0, count)
+				.concatMap(i -> hedger.hedge(() -> {
+					requests.incrementAndGet();
+					return Mono.delay(latency);
+				}));
+	}
+
+	@Test
+	public void test_noHedgingBeforeMinSamples() {
+		var hedger = new HedgingPolicy(0.5, 1.0, Duration.ofMillis(1)).newHedger();
+		var requests = new AtomicInteger();
+
+		StepVerifier.withVirtualTime(() -> calls(hedger, MIN_SAMPLES - 1, SLOW, requests))
+				.thenAwait(SLOW.multipliedBy(MIN_SAMPLES))
+				.expectNextCount(MIN_SAMPLES - 1)
+				.expectComplete()
+				.verify(TIMEOUT);
+
+		Assertions.assertEquals(MIN_SAMPLES - 1, requests.get());
+		Assertions.assertNull(hedger.getDelay());
+
+		StepVerifier.withVirtualTime(() -> calls(hedger, 1, SLOW, requests))
+				.thenAwait(SLOW)
+				.expectNextCount(1)
+				.expectComplete()
+				.verify(TIMEOUT);
+
+		Assertions.assertEquals(SLOW, hedger.getDelay());
+	}
+
+	@Test
+	public void test_hedgeFiresAfterTheDelayAndTheLoserIsCancelled() {
+		var hedger = new HedgingPolicy(0.5, 1.0, Duration.ofMillis(1)).newHedger();
+
+		StepVerifier.withVirtualTime(() -> calls(hedger, MIN_SAMPLES, FAST, new AtomicInteger()))
+				.thenAwait(FAST.multipliedBy(MIN_SAMPLES))
+				.expectNextCount(MIN_SAMPLES)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(FAST, hedger.getDelay());
+
+		var attempts = new AtomicInteger();
+		var primaryCancelled = new AtomicBoolean();
+		StepVerifier.withVirtualTime(() -> hedger.hedge(() -> attempts.getAndIncrement() == 0
+						? Mono.delay(SLOW).thenReturn("primary").doOnCancel(() -> primaryCancelled.set(true))
+						: Mono.delay(FAST).thenReturn("hedge")))
+				.expectSubscription()
+				.expectNoEvent(FAST.multipliedBy(2).minusMillis(1))
+				.thenAwait(Duration.ofMillis(1))
+				.expectNext("hedge")
+				.expectComplete()
+				.verify(TIMEOUT);
+
+		Assertions.assertEquals(2, attempts.get());
+		Assertions.assertTrue(primaryCancelled.get());
+	}
+
+	@Test
+	public void test_budgetCapsHedgesAtTheRatio() {
+		double maxHedgeRatio = 0.1;
+		int slowCalls = 80;
+		var hedger = new HedgingPolicy(0.5, maxHedgeRatio, Duration.ofMillis(1)).newHedger();
+
+		StepVerifier.withVirtualTime(() -> calls(hedger, MIN_SAMPLES, FAST, new AtomicInteger()))
+				.thenAwait(FAST.multipliedBy(MIN_SAMPLES))
+				.expectNextCount(MIN_SAMPLES)
+				.expectComplete()
+				.verify(TIMEOUT);
+
+		var requests = new AtomicInteger();
+		StepVerifier.withVirtualTime(() -> Flux.range(0, slowCalls)
+						.flatMap(i -> hedger.hedge(() -> {
+							requests.incrementAndGet();
+							return Mono.delay(SLOW);
+						})))
+				.thenAwait(SLOW.multipliedBy(2))
+				.expectNextCount(slowCalls)
+				.expectComplete()
+				.verify(TIMEOUT);
+
+		int hedges = requests.get() - slowCalls;
+		Assertions.assertTrue(hedges > 0, "slow requests should be hedged");
+		Assertions.assertTrue(hedges <= maxHedgeRatio * (MIN_SAMPLES + slowCalls),
+							  "hedges should not exceed the ratio, but were " + hedges);
+	}
+}
@@ -0,0 +1,66 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.batchingOperators.RollingFileWriter;
+import org.ablonewolf.batchingOperators.RollingPolicy;
+import org.ablonewolf.common.Util;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The TestRollingFileWriter class verifies that {@link RollingFileWriter} rotates files and closes every file it
+ * opened, however the stream ends.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Lines are split across files by record count, and every file is emitted once closed.<br>
+ * 2. When the stream is cancelled at any point, files rotated but not yet closed are still closed, with their lines
+ * written out, and no file is left open or empty.
+ */
+public class TestRollingFileWriter {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	@TempDir
+	Path directory;
+
+	private RollingPolicy policy() {
+		return RollingPolicy.of(directory.resolve("rolling-%d.txt").toString()).withMaxRecords(2);
+	}
+
+	@Test
+	public void test_rotatesByRecordCount() throws IOException {
+		StepVerifier.create(RollingFileWriter.write(Flux.range(0, 5).map(String::valueOf), policy()))
+				.expectNextCount(3)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(List.of("0", "1"), Files.readAllLines(directory.resolve("rolling-0.txt")));
+		Assertions.assertEquals(List.of("4"), Files.readAllLines(directory.resolve("rolling-2.txt")));
+	}
+
+	@Test
+	public void test_rotatedFilesAreClosedOnCancel() throws IOException {
+		for (int run = 0; run < 200; run++) {
+			var policy = RollingPolicy.of(directory.resolve("cancelled-" + run + "-%d.txt").toString())
+					.withMaxRecords(2);
+			var subscription = RollingFileWriter.write(Flux.range(0, 2_000).map(String::valueOf), policy)
+					.subscribe();
+			Util.sleep(Duration.ofNanos(run * 5_000L));
+			subscription.dispose();
+		}
+		Util.sleepSeconds(1L);
+
+		try (var files = Files.list(directory)) {
+			for (Path file : files.toList()) {
+				Assertions.assertNotEquals(0, Files.size(file), file + " was left unflushed");
+			}
+		}
+	}
+}
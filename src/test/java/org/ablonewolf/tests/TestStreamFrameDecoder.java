@@ -0,0 +1,65 @@
+package org.ablonewolf.tests;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.ablonewolf.common.StreamFrameDecoder;
+import org.ablonewolf.common.StreamFrameDecoder.Framing;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * The TestStreamFrameDecoder class verifies that {@link StreamFrameDecoder} splits a response body into messages
+ * independently of how it is chunked.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Lines split across chunks, several lines within one chunk and a trailing line without terminator are decoded.<br>
+ * 2. Empty keep-alive lines in a line-delimited stream are skipped instead of being handed to the mapper.<br>
+ * 3. Server-sent events are decoded from their data lines, ignoring comments.
+ */
+public class TestStreamFrameDecoder {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private static Flux<ByteBuf> chunks(String... chunks) {
+		return Flux.just(chunks)
+				.map(chunk -> Unpooled.copiedBuffer(chunk, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void test_linesAcrossChunks() {
+		var numbers = StreamFrameDecoder.decode(chunks("1\n2", "3\r\n4\n", "5"), Framing.LINES,
+												StreamFrameDecoder::parseInt);
+
+		StepVerifier.create(numbers)
+				.expectNext(1, 23, 4, 5)
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_keepAliveLinesAreSkipped() {
+		var numbers = StreamFrameDecoder.decode(chunks("\n1\n\r\n", "\n2\n", "\n"), Framing.LINES,
+												StreamFrameDecoder::parseInt);
+
+		StepVerifier.create(numbers)
+				.expectNext(1, 2)
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_serverSentEvents() {
+		var events = StreamFrameDecoder.decode(chunks(": keep-alive\n\ndata: 1\n", "\ndata: a\ndata: b\n\n"),
+											   Framing.SERVER_SENT_EVENTS,
+											   message -> message.toString(StandardCharsets.UTF_8));
+
+		StepVerifier.create(events)
+				.expectNext("1", "a\nb")
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+}
@@ -0,0 +1,124 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.model.Order;
+import org.ablonewolf.model.User;
+import org.ablonewolf.model.UserInformation;
+import org.ablonewolf.services.UserInformationPipeline;
+import org.ablonewolf.services.UserInformationPipeline.StageLatency;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The TestUserInformationPipeline class verifies the views built by {@link UserInformationPipeline}, how many users it
+ * joins at a time, and the stage latencies it records.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Every run records the latencies of its own users only, instead of adding to those of earlier runs.<br>
+ * 2. Incremental views start with the balance alone, followed by the orders in chunks of at most the chunk size, and
+ * users without a balance are dropped.<br>
+ * 3. No more than {@code parallelism * concurrencyPerRail} users are joined at a time.
+ */
+public class TestUserInformationPipeline {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	/**
+	 * Gives user {@code id} {@code 10 * id} as balance and {@code 2 * id + 1} orders, except user 4, who has no
+	 * balance.
+	 */
+	private static Mono<Integer> balance(Integer userId) {
+		return userId == 4 ? Mono.empty() : Mono.just(10 * userId);
+	}
+
+	private static List<Order> orderList(Integer userId) {
+		return IntStream.range(0, 2 * userId + 1)
+				.mapToObj(i -> new Order(100 * userId + i, userId, "product-" + i, i))
+				.toList();
+	}
+
+	private static Flux<Order> orders(Integer userId) {
+		return Flux.defer(() -> Flux.fromIterable(orderList(userId)));
+	}
+
+	@Test
+	public void test_latenciesAreRecordedPerRun() {
+		var pipeline = new UserInformationPipeline(2, 4, 10);
+		var users = Flux.just(new User(1, "sam"), new User(2, "mike"), new User(3, "jake"));
+
+		for (int run = 0; run < 2; run++) {
+			StepVerifier.create(pipeline.aggregate(users))
+					.expectNextCount(3)
+					.expectComplete()
+					.verify(TIMEOUT);
+			List<Long> counts = pipeline.getStageLatencies().stream().map(StageLatency::getCount).toList();
+			Assertions.assertEquals(List.of(3L, 3L, 3L), counts);
+		}
+	}
+
+	@Test
+	public void test_incrementalViewsStartWithTheBalance() {
+		int orderChunkSize = 3;
+		var pipeline = new UserInformationPipeline(2, 4, orderChunkSize, TestUserInformationPipeline::balance,
+												   TestUserInformationPipeline::orders);
+		var users = Flux.range(0, 6).map(id -> new User(id, "user-" + id));
+
+		StepVerifier.create(pipeline.aggregateIncrementally(users).collectList())
+				.assertNext(views -> {
+					Map<Integer, List<UserInformation>> viewsByUser = views.stream()
+							.collect(Collectors.groupingBy(UserInformation::userId));
+					Assertions.assertEquals(List.of(0, 1, 2, 3, 5), viewsByUser.keySet().stream().sorted().toList());
+
+					viewsByUser.forEach((userId, userViews) -> {
+						var first = userViews.getFirst();
+						Assertions.assertEquals(10 * userId, first.balance());
+						Assertions.assertEquals(List.of(), first.orders());
+
+						List<Order> received = new ArrayList<>();
+						for (var view : userViews.subList(1, userViews.size())) {
+							Assertions.assertEquals(10 * userId, view.balance());
+							Assertions.assertTrue(view.orders().size() <= orderChunkSize);
+							Assertions.assertFalse(view.orders().isEmpty());
+							received.addAll(view.orders());
+						}
+						Assertions.assertEquals(orderList(userId), received);
+						Assertions.assertEquals(1 + (2 * userId + orderChunkSize) / orderChunkSize, userViews.size());
+					});
+				})
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_joinsInFlightAreBounded() {
+		int parallelism = 3;
+		int concurrencyPerRail = 4;
+		var inFlight = new AtomicInteger();
+		var maxInFlight = new AtomicInteger();
+		var pipeline = new UserInformationPipeline(
+				parallelism, concurrencyPerRail, 10,
+				userId -> Mono.delay(Duration.ofMillis(5))
+						.thenReturn(userId)
+						.doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(),
+																					 Math::max))
+						.doOnNext(value -> inFlight.decrementAndGet()),
+				TestUserInformationPipeline::orders);
+		var users = Flux.range(0, 200).map(id -> new User(id, "user-" + id));
+
+		StepVerifier.create(pipeline.aggregate(users))
+				.expectNextCount(200)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(parallelism * concurrencyPerRail, maxInFlight.get());
+	}
+}
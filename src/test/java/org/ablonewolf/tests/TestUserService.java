@@ -0,0 +1,87 @@
+package org.ablonewolf.tests;
+
+import org.ablonewolf.model.User;
+import org.ablonewolf.services.UserService;
+import org.ablonewolf.services.UserStore;
+import org.ablonewolf.services.impl.InMemoryUserStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The TestUserService class verifies the batched lookups of {@link UserService} against replaceable stores.
+ * <p>
+ * Key scenarios:<br>
+ * 1. Replacing the store fails the lookups the previous store has not answered, instead of leaving them pending.<br>
+ * 2. A username repeated in the stream given to {@link UserService#getUserIds(Flux)} is looked up only once.
+ */
+public class TestUserService {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+	private static final Map<String, Integer> USERS = Map.of("sam", 1, "mike", 2, "jake", 3);
+
+	@AfterEach
+	public void restoreStore() {
+		UserService.useStore(new InMemoryUserStore(USERS));
+	}
+
+	@Test
+	public void test_replacingStoreFailsPendingLookups() {
+		UserService.useStore(new UserStore() {
+			@Override
+			public Mono<Map<String, Integer>> findIdsByUsernames(Collection<String> usernames) {
+				return Mono.never();
+			}
+
+			@Override
+			public Flux<User> findAll() {
+				return Flux.never();
+			}
+		});
+
+		StepVerifier.create(UserService.getUserId("sam"))
+				.expectSubscription()
+				.thenAwait(Duration.ofMillis(50))
+				.then(() -> UserService.useStore(new InMemoryUserStore(USERS)))
+				.expectError(CancellationException.class)
+				.verify(TIMEOUT);
+		StepVerifier.create(UserService.getUserId("sam"))
+				.expectNext(1)
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	public void test_repeatedUsernamesAreLookedUpOnce() {
+		List<String> queried = new CopyOnWriteArrayList<>();
+		var store = new InMemoryUserStore(USERS);
+		UserService.useStore(new UserStore() {
+			@Override
+			public Mono<Map<String, Integer>> findIdsByUsernames(Collection<String> usernames) {
+				queried.addAll(usernames);
+				return store.findIdsByUsernames(usernames);
+			}
+
+			@Override
+			public Flux<User> findAll() {
+				return store.findAll();
+			}
+		});
+
+		StepVerifier.create(UserService.getUserIds(Flux.just("sam", "mike", "sam", "unknown", "sam")))
+				.expectNext(1, 2, 1, 1)
+				.expectComplete()
+				.verify(TIMEOUT);
+		Assertions.assertEquals(1, queried.stream().filter("sam"::equals).count());
+	}
+}